@@ -0,0 +1,39 @@
+package ai_final;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class loads the problems of corpus.txt, the fixed set of problems the
+ * benchmarks are run on. The file is copied next to the benchmark classes by
+ * the bench target of build.xml.
+ * @author Ryan Nichols
+ */
+class BenchmarkCorpus {
+
+    /**
+     * @param name name of a problem of the corpus
+     * @return the problem
+     * @throws IllegalArgumentException if there is no such problem
+     */
+    static Problem load(String name) {
+        InputStream in = BenchmarkCorpus.class.getResourceAsStream("corpus.txt");
+        if (in == null) {
+            throw new IllegalStateException("corpus.txt is not on the class path");
+        }
+        try (ProblemReader problems = new ProblemReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), "corpus.txt")) {
+            while (problems.hasNext()) {
+                Problem problem = problems.next();
+                if (problem.getName().equals(name)) {
+                    return problem;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read corpus.txt", e);
+        }
+        throw new IllegalArgumentException("No problem named " + name + " in corpus.txt");
+    }
+}
@@ -0,0 +1,83 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the operations the searches repeat for every state, on the 
+ * initial world of each problem of the corpus. Each benchmark starts from a
+ * new State, as the searches do, so the cost of indexing its world is 
+ * included where the operation needs it.
+ *
+ * Run with: ant bench -Djmh.classpath=... -Dbench.args=PlannerBenchmark
+ * @author Ryan Nichols
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class PlannerBenchmark {
+    @Param({"swap4", "shuffle10", "wide6"})
+    String problem;
+
+    ArrayList<Predicate> world;         //Initial world of the problem
+    ArrayList<Predicate> goal;          //Goal world of the problem
+    ArrayList<Predicate> shuffledGoal;  //Same world as goal, predicates in reverse order
+    Action action;                      //First possible action of the initial world
+    Changes changes;                    //Changes of that action
+    ResolutionEngine engine;
+
+    @Setup
+    public void setUp() {
+        Problem p = BenchmarkCorpus.load(problem);
+        world = p.getInitialWorld();
+        goal = p.getGoalWorld();
+        shuffledGoal = new ArrayList<>(goal);
+        Collections.reverse(shuffledGoal);
+        action = new State(world, null, null, 0, 0).getPossibleActions().get(0);
+        changes = action.getChanges();
+        engine = new ResolutionEngine(world, goal);
+    }
+
+
+    /*****************************************************
+     *                   Benchmarks                      *
+     *****************************************************/
+    @Benchmark
+    public ArrayList<Action> getPossibleActions() {
+        return new State(world, null, null, 0, 0).getPossibleActions();
+    }
+
+    @Benchmark
+    public Changes getChanges() {
+        return action.getChanges();
+    }
+
+    @Benchmark
+    public ArrayList<Predicate> applyAction() {
+        return action.applyAction(world, changes);
+    }
+
+    @Benchmark
+    public int calcDistanceToGoal() {
+        return engine.calcDistanceToGoal(world, goal);
+    }
+
+    @Benchmark
+    public boolean areWorldsEqual() {
+        return engine.areWorldsEqual(goal, shuffledGoal);
+    }
+}
@@ -0,0 +1,62 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of ResolutionEngine.solve() from start to finish on the problems
+ * of the corpus. Other settings can be chosen with JMH's -p option, for 
+ * example -p strategy=ASTAR -p problem=swap4,shuffle10,wide6 (A* does not 
+ * finish the other problems).
+ *
+ * Run with: ant bench -Djmh.classpath=... -Dbench.args=SolveBenchmark
+ * @author Ryan Nichols
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class SolveBenchmark {
+    @Param({"swap4", "shuffle10", "reverse10", "interleave10", "wide6"})
+    String problem;
+
+    @Param({"GREEDY"})
+    String strategy;
+
+    @Param({"false"})
+    boolean macroMoves;
+
+    ResolutionEngine settings;          //Settings copied by the engine of each run
+    Problem instance;
+
+    @Setup
+    public void setUp() {
+        instance = BenchmarkCorpus.load(problem);
+        settings = new ResolutionEngine();
+        settings.setVerbose(false);
+        settings.setStrategy(SearchStrategy.parse(strategy));
+        settings.setMacroMoves(macroMoves);
+    }
+
+    @Benchmark
+    public ArrayList<State> solve() {
+        ResolutionEngine engine = new ResolutionEngine(settings, instance.getInitialWorld(), instance.getGoalWorld());
+        ArrayList<State> states = engine.solve();
+        if (states.isEmpty()) {
+            throw new IllegalStateException("No solution found for " + problem);
+        }
+        return states;
+    }
+}
@@ -4,11 +4,27 @@
 * It uses a modified version of A* that finds a solution as quickly as possible
 * at the expense of no longer being the optimal solution. This is needed for most
 * problems larger than 6 blocks. If desired, the algorithm can be changed back
-* to traditional A* by commenting State.java: line 109 and uncommenting line 110
+* to traditional A* by running with --strategy=astar. Other options are
+* --strategy=weighted-astar --weight=W, and --strategy=anytime --weight=W
+* --time=MILLISECONDS, which prints every shorter solution as it is found.
+* Run with --problems=FILE to solve every problem of a problem file (see
+* ProblemReader) instead of typing one in, and --threads=N to solve N of them
+* at once. --cache=N remembers the solutions of up to N problems, so repeated
+* problems, even with the blocks renamed, are only solved once. --moves searches
+* with moves of a block from one place to another instead of single actions,
+* which halves the depth of the search. --jmx publishes the counters of the
+* searches as the JMX MBean ai_final:type=PlannerMetrics. --locations=N types in
+* worlds of N locations instead of 4; blocks may have any name. --time-limit=MS,
+* --max-expansions=N and --heap-limit-mb=MB bound each search; a search that
+* runs out prints the best partial solution instead.
 */
 package ai_final;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Scanner;
 import java.util.Stack;
 
@@ -19,39 +35,53 @@ import java.util.Stack;
  * @author Ryan Nichols
  */
 public class AI_Final {
-    //Global vars
-    static Block A = new Block("A");
-    static Block B = new Block("B");
-    static Block C = new Block("C");
-    static Block D = new Block("D");
-    static Block E = new Block("E");
-    static Block F = new Block("F");
-    static Block G = new Block("G");
-    static Block H = new Block("H");
-    static Block I = new Block("I");
-    static Block J = new Block("J");
-
-    static Location L1 = new Location("L1");
-    static Location L2 = new Location("L2");
-    static Location L3 = new Location("L3");
-    static Location L4 = new Location("L4");
+    final static int DEFAULT_LOCATIONS = 4;         //Number of locations of a typed in world, unless --locations= is given
+
+    static Scanner input = new Scanner(System.in);  //Shared by every prompt, so piped input is not lost between stacks
 
     /**
      * Main Method
-     * @param args
+     * @param args optional --strategy=, --weight=, --time=, --problems=, 
+     * --threads=, --cache=, --locations=, --time-limit=, --max-expansions= and 
+     * --heap-limit-mb= settings
      */
     public static void main(String[] args) {
+        String problemFile = option(args, "--problems=");
+        if (problemFile != null) {
+            try {
+                solveFile(problemFile, args);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         ArrayList<Predicate> initialWorld;
         ArrayList<Predicate> goalWorld;
-        ArrayList<State> states = new ArrayList<>();
+        ResolutionEngine res = new ResolutionEngine();
+        String locations = option(args, "--locations=");
+        int locationCount = DEFAULT_LOCATIONS;
+        try {
+            configure(res, args);   //Before the worlds are typed in, so a bad option is reported at once
+            if (locations != null) {
+                locationCount = Integer.parseInt(locations);
+                if (locationCount < 1) {
+                    throw new IllegalArgumentException("--locations= must be at least 1: " + locationCount);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
 
         //Get initial state
         System.out.println("Define the initial state.");
-        initialWorld = defineWorld();
+        initialWorld = defineWorld(locationCount);
 
         //Get goal state
         System.out.println("Define the goal state.");
-        goalWorld = defineWorld();
+        goalWorld = defineWorld(locationCount);
 
         //Display init world desciption in console
         System.out.println("Init State:");
@@ -68,177 +98,258 @@ public class AI_Final {
         System.out.println("");
 
         //Solve
-        ResolutionEngine res = new ResolutionEngine(initialWorld, goalWorld);
+        res.setInitialWorld(initialWorld);
+        res.setGoalWorld(goalWorld);
         long start = System.currentTimeMillis();
-        states = res.solve();
+        SolveResult result = res.solveWithResult();
         long end = System.currentTimeMillis();
         long total = end - start;   //Calculate runtime
 
 
         //Display states in console
-        ArrayList<Stack<String>> stringStacks = new ArrayList<>();              //Description of a world
-        ArrayList<ArrayList<Stack<String>>> allStateStrings = new ArrayList<>();//List of world descriptions
+        if (result.isSolved()) {
+            printStates(result.getStates());
+            System.out.println("Solution found in " + total/1000.0 + " seconds.");
+        }
+        else {
+            printStates(result.getPartialPlan());
+            System.out.println("No solution found in " + total/1000.0 + " seconds (" + result.getOutcome()
+                    + "), the states above are the closest the search got.");
+        }
+    }//end main
 
-        for (int i = 0; i < states.size(); i++) {
-            stringStacks = states.get(i).toStringStacks();      //Convert each state in the path to a printable form
-            allStateStrings.add(stringStacks);                  //Add it to an iterable list
+    /**
+     * Draws the worlds of a path, one below the other. Every world is drawn
+     * as high as the tallest stack of the path, and the columns are as wide 
+     * as the longest block or location name.
+     * @param states
+     */
+    public static void printStates(ArrayList<State> states) {
+        ArrayList<ArrayList<Stack<String>>> allStateStrings = new ArrayList<>();//List of world descriptions
+        int height = 0;
+        int width = 0;
+        for (State state : states) {
+            ArrayList<Stack<String>> stringStacks = state.toStringStacks();    //Convert each state in the path to a printable form
+            for (Stack<String> stack : stringStacks) {
+                height = Math.max(height, stack.size());
+                for (String name : stack) {
+                    width = Math.max(width, name.length());
+                }
+            }
+            allStateStrings.add(stringStacks);
+        }
+        ArrayList<Location> locations = states.isEmpty() ? new ArrayList<Location>() : states.get(0).getLocations();
+        StringBuilder footer = new StringBuilder("    ");
+        for (Location l : locations) {
+            width = Math.max(width, l.getName().length());
+        }
+        for (Location l : locations) {
+            footer.append(pad(l.getName(), width + 2));
+        }
+        while (footer.length() > 0 && footer.charAt(footer.length() - 1) == ' ') {
+            footer.setLength(footer.length() - 1);
+        }
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 5 + (width + 2) * locations.size(); i++) {
+            line.append('_');
         }
 
         for (int i = 0; i < allStateStrings.size(); i++) {      //For each state
             System.out.println("State " + i + ": ");            //Display the state number
-            System.out.println("_____________________");
-            for (int k = 0; k < 10; k++) {                      //For each row
+            System.out.println(line);
+            ArrayList<Stack<String>> stringStacks = allStateStrings.get(i);
+            for (int k = height; k > 0; k--) {                  //For each row, from the top
                 System.out.print("|   ");
-                for (int j = 0; j < allStateStrings.get(i).size(); j++) {   //For each stack
-                    String temp = allStateStrings.get(i).get(j).pop();      //Print the block name or empty space
-                    System.out.print(temp + "   "); //Spacing
+                for (Stack<String> stack : stringStacks) {      //For each stack
+                    String temp = stack.size() < k ? "_" : stack.pop();    //Print the block name or empty space
+                    System.out.print(pad(temp, width + 2));
                 }
                 System.out.println("|");
             }
-            System.out.println("    L1  L2  L3  L4\n\n");
+            System.out.println(footer + "\n\n");
         }
-        System.out.println("Solution found in " + total/1000.0 + " seconds.");
-    }//end main
+    }
+
+    /**
+     * @param text
+     * @param width
+     * @return the text followed by spaces up to the given width
+     */
+    private static String pad(String text, int width) {
+        StringBuilder padded = new StringBuilder(text);
+        while (padded.length() < width) {
+            padded.append(' ');
+        }
+        return padded.toString();
+    }
+
+    /**
+     * Applies the command line settings to the solver
+     * @param res
+     * @param args
+     */
+    public static void configure(ResolutionEngine res, String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--strategy=")) {
+                res.setStrategy(SearchStrategy.parse(arg.substring("--strategy=".length())));
+            }
+            else if (arg.startsWith("--weight=")) {
+                res.setWeight(Double.parseDouble(arg.substring("--weight=".length())));
+            }
+            else if (arg.startsWith("--time=")) {
+                res.setTimeBudget(Long.parseLong(arg.substring("--time=".length())));
+            }
+            else if (arg.startsWith("--time-limit=")) {
+                res.setTimeLimit(Long.parseLong(arg.substring("--time-limit=".length())));
+            }
+            else if (arg.startsWith("--max-expansions=")) {
+                res.setExpansionLimit(Long.parseLong(arg.substring("--max-expansions=".length())));
+            }
+            else if (arg.startsWith("--heap-limit-mb=")) {
+                res.setHeapLimit(Long.parseLong(arg.substring("--heap-limit-mb=".length())) * 1024 * 1024);
+            }
+            else if (arg.equals("--moves")) {
+                res.setMacroMoves(true);
+            }
+            else if (arg.equals("--jmx")) {
+                res.setSearchListener(PlannerMetrics.register());
+            }
+            else if (arg.startsWith("--problems=") || arg.startsWith("--threads=") || arg.startsWith("--cache=")
+                    || arg.startsWith("--locations=")) {
+                //Used by main and solveFile
+            }
+            else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        res.setPlanListener(new PlanListener() {
+            @Override
+            public void planFound(ArrayList<State> plan, int length, double weight) {
+                System.out.println("Found a solution of " + length + " actions (weight " + weight + ")");
+            }
+        });
+    }
+
+    /**
+     * Solves every problem of a problem file and prints one line per problem,
+     * in the order in which they are solved: its name, the number of actions
+     * and the time taken, then the actions
+     * @param file path of the problem file
+     * @param args command line settings, see configure()
+     * @throws IOException if the file cannot be read
+     */
+    public static void solveFile(String file, String[] args) throws IOException {
+        String threads = option(args, "--threads=");
+        String cacheSize = option(args, "--cache=");
+        ResolutionEngine settings = new ResolutionEngine();
+        configure(settings, args);
+        settings.setVerbose(false);
+        settings.setPlanListener(null);
+
+        try (ProblemReader problems = new ProblemReader(Paths.get(file));
+             BatchSolver solver = new BatchSolver(threads == null ? 1 : Integer.parseInt(threads))) {
+            solver.setSettings(settings);
+            if (cacheSize != null) {
+                solver.setCache(new SolutionCache(Integer.parseInt(cacheSize)));
+            }
+            Iterator<Solution> solutions = solver.solve(problems);
+            while (solutions.hasNext()) {
+                Solution solution = solutions.next();
+                String name = solution.getProblem().getName();
+                double ms = solution.getElapsedNanos() / 1000000.0;
+                if (solution.getFailure() != null) {
+                    System.out.println(name + ": failed after " + ms + " ms: " + solution.getFailure());
+                }
+                else if (!solution.isSolved()) {
+                    System.out.println(name + ": no solution (" + solution.getOutcome() + "), " + ms + " ms");
+                }
+                else {
+                    ArrayList<State> states = solution.getStates();
+                    StringBuilder actions = new StringBuilder();
+                    int count = 0;
+                    for (State s = states.get(states.size() - 1); s.getParent() != null; s = s.getParent()) {
+                        ArrayList<Action> single = s.getAction().toActions();  //The actions of a Move
+                        for (int i = single.size() - 1; i >= 0; i--) {
+                            actions.insert(0, " " + single.get(i));
+                            count++;
+                        }
+                    }
+                    System.out.println(name + ": " + count + " actions, " + ms + " ms:" + actions);
+                }
+            }
+            if (solver.getCache() != null) {
+                System.out.println(solver.getCache());
+            }
+        }
+    }
+
+    /**
+     * Finds the value of a command line option
+     * @param args
+     * @param prefix for example "--threads="
+     * @return the text after the prefix, or null if the option is not given
+     */
+    public static String option(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return null;
+    }
 
     /**
      * Get user input to define the world
+     * @param locationCount number of locations, named L1, L2, ...
      * @return A list of predicates describing the world defined by the user
      */
-    public static ArrayList<Predicate> defineWorld() {
+    public static ArrayList<Predicate> defineWorld(int locationCount) {
         ArrayList<Predicate> predicates = new ArrayList<>();
-        predicates.addAll(defineStack(L1));
-        predicates.addAll(defineStack(L2));
-        predicates.addAll(defineStack(L3));
-        predicates.addAll(defineStack(L4));
+        HashSet<Block> placed = new HashSet<>();
+        for (int l = 1; l <= locationCount; l++) {
+            predicates.addAll(defineStack(Names.location("L" + l), placed));
+        }
         return predicates;
     }
 
     /**
-     * Get user input to define one stack
+     * Get user input to define one stack. Any name other than "clear" is a 
+     * block.
      * @param loc Location/Block on which the stack is to be placed
+     * @param placed blocks already placed in this world, the new ones are 
+     * added to it
      * @return A list of predicates describing the stack defined by the user
      */
-    public static ArrayList<Predicate> defineStack(Object loc) {
+    public static ArrayList<Predicate> defineStack(Object loc, HashSet<Block> placed) {
         ArrayList<Predicate> predicates = new ArrayList<>();
-        Scanner s = new Scanner(System.in);
-        String ans = "";
+        Scanner s = input;
         Object top = loc;
 
-        while (!ans.equals("CLEAR")) {
+        while (true) {
             System.out.print("Enter a block to stack on " + top.toString() + " (or clear): ");
-            ans = s.next().toUpperCase();
-            switch(ans) {
-                case "A":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, A, (Location) top));
-                        top = A;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, A, (Block) top));
-                        top = A;
-                    }
-                    break;
-                case "B":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, B, (Location) top));
-                        top = B;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, B, (Block) top));
-                        top = B;
-                    }
-                    break;
-                case "C":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, C, (Location) top));
-                        top = C;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, C, (Block) top));
-                        top = C;
-                    }
-                    break;
-                case "D":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, D, (Location) top));
-                        top = D;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, D, (Block) top));
-                        top = D;
-                    }
-                    break;
-                case "E":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, E, (Location) top));
-                        top = E;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, E, (Block) top));
-                        top = E;
-                    }
-                    break;
-                case "F":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, F, (Location) top));
-                        top = F;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, F, (Block) top));
-                        top = F;
-                    }
-                    break;
-                case "G":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, G, (Location) top));
-                        top = G;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, G, (Block) top));
-                        top = G;
-                    }
-                    break;
-                case "H":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, H, (Location) top));
-                        top = H;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, H, (Block) top));
-                        top = H;
-                    }
-                    break;
-                case "I":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, I, (Location) top));
-                        top = I;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, I, (Block) top));
-                        top = I;
-                    }
-                    break;
-                case "J":
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.ONTABLE, J, (Location) top));
-                        top = J;
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.ON, J, (Block) top));
-                        top = J;
-                    }
-                    break;
-                default:
-                    ans = "CLEAR";   //Break loop
-                    if (top instanceof Location) {
-                        predicates.add(new Predicate(Predicate.CLEARLOC, (Location) top));
-                    }
-                    else if (top instanceof Block) {
-                        predicates.add(new Predicate(Predicate.CLEAR, (Block) top));
-                    }
-                    break;
-            } //End Switch
+            String ans = s.next().toUpperCase();
+            if (ans.equals("CLEAR")) {
+                break;
+            }
+            Block block = Names.block(ans);
+            if (!placed.add(block)) {
+                System.out.println("Block " + ans + " is already placed.");
+                continue;
+            }
+            if (top instanceof Location) {
+                predicates.add(new Predicate(Predicate.ONTABLE, block, (Location) top));
+            }
+            else {
+                predicates.add(new Predicate(Predicate.ON, block, (Block) top));
+            }
+            top = block;
         }//End while
+        if (top instanceof Location) {
+            predicates.add(new Predicate(Predicate.CLEARLOC, (Location) top));
+        }
+        else {
+            predicates.add(new Predicate(Predicate.CLEAR, (Block) top));
+        }
         return predicates;
     }
 
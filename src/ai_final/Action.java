@@ -31,6 +31,7 @@ public class Action {
     final public static String UNSTACK = "UNSTACK";
     final public static String STACK = "STACK";
     final public static String NOOP = "NOOP";  
+    final public static String MOVE = "MOVE";   //See Move
 
     /**
      * Constructor for pickup/putdown actions
@@ -105,6 +106,48 @@ public class Action {
         return changes;
     }
     
+    /**
+     * Same as getChanges(), but made of the predicates of a domain, looked up
+     * by index, so no predicate is created or interned. Used when generating
+     * successors, where the indices are already known.
+     * @param domain the domain of the world the action applies to
+     * @param block index of block1
+     * @param other index of block2 for UNSTACK and STACK, or of the location
+     * for PICKUP and PUTDOWN
+     * @return the changes of this action
+     */
+    public Changes getChanges(Domain domain, int block, int other) {
+        ArrayList<Predicate> removed = new ArrayList<>(2);
+        ArrayList<Predicate> added = new ArrayList<>(2);
+        switch (name) {
+            case PICKUP:
+                removed.add(domain.onTable(block, other));
+                removed.add(domain.clear(block));
+                added.add(domain.clearLoc(other));
+                added.add(domain.holding(block));
+                break;
+            case PUTDOWN:
+                added.add(domain.onTable(block, other));
+                added.add(domain.clear(block));
+                removed.add(domain.clearLoc(other));
+                removed.add(domain.holding(block));
+                break;
+            case UNSTACK:
+                removed.add(domain.on(block, other));
+                removed.add(domain.clear(block));
+                added.add(domain.clear(other));
+                added.add(domain.holding(block));
+                break;
+            case STACK:
+                added.add(domain.on(block, other));
+                added.add(domain.clear(block));
+                removed.add(domain.clear(other));
+                removed.add(domain.holding(block));
+                break;
+        }
+        return new Changes(removed, added);
+    }
+    
     /**
      * Modifies and returns the provided world by applying the changes that 
      * occur upon performing this action.
@@ -112,22 +155,70 @@ public class Action {
      * @return 
      */
     public ArrayList<Predicate> applyAction(ArrayList<Predicate> world) {
-        ArrayList<Predicate> modifiedWorld = new ArrayList<>(world);    //Copy the given world
-        Changes predicateChanges = getChanges();                        //Calculate the changes caused by this action
-        ArrayList<Predicate> removals = new ArrayList<>();              //Predicates marked for removal
+        return applyAction(world, getChanges());                        //Calculate the changes caused by this action
+    }
+    
+    /**
+     * Modifies and returns the provided world by applying the given changes, 
+     * which must have been obtained from getChanges() of this action. Use this
+     * when the changes are also needed elsewhere, to avoid calculating them 
+     * twice.
+     * @param world
+     * @param predicateChanges
+     * @return 
+     */
+    public ArrayList<Predicate> applyAction(ArrayList<Predicate> world, Changes predicateChanges) {
+        ArrayList<Predicate> removed = predicateChanges.getRemoved();
+        ArrayList<Predicate> modifiedWorld = new ArrayList<>(world.size() + predicateChanges.getAdded().size());
         //Apply changes
-        for (Predicate p : predicateChanges.getRemoved()) {     //For each predicate that is to be removed
-            for(Predicate p2 : modifiedWorld) {                 //For each predicate in the world
-                if (p.equals(p2))                               //If the predicates match
-                    removals.add(p2);                           //Mark the predicate for removal 
-            }
+        for (Predicate p : world) {                             //For each predicate in the world
+            if (!removed.contains(p))                           //Copy it unless this action removes it
+                modifiedWorld.add(p);
         }
-        modifiedWorld.removeAll(removals);                      //Delete all predicates that are removed as a result of this action
         modifiedWorld.addAll(predicateChanges.getAdded());      //Add all predicates that are added as a result of this action
                
         return modifiedWorld;
     }
     
+    /**
+     * Returns the action that undoes this action. Every action in this problem
+     * can be undone: PICKUP and PUTDOWN undo each other, as do UNSTACK and 
+     * STACK.
+     * @return the inverse of this action
+     */
+    public Action inverse() {
+        switch (name) {
+            case PICKUP:
+                return new Action(PUTDOWN, block1, location);
+            case PUTDOWN:
+                return new Action(PICKUP, block1, location);
+            case UNSTACK:
+                return new Action(STACK, block1, block2);
+            case STACK:
+                return new Action(UNSTACK, block1, block2);
+            default:
+                return this;
+        }
+    }
+    
+    /**
+     * @return the single actions this action stands for: itself, except for
+     * a Move
+     */
+    public ArrayList<Action> toActions() {
+        ArrayList<Action> actions = new ArrayList<>();
+        actions.add(this);
+        return actions;
+    }
+    
+    /**
+     * @return the number of single actions this action stands for, which is
+     * what it adds to the length of a path
+     */
+    public int getCost() {
+        return 1;
+    }
+    
     /*****************************************************
      *                 Getters and Setters               *
      *****************************************************/
@@ -0,0 +1,245 @@
+package ai_final;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class solves many independent problems at once. Each problem is solved
+ * by its own ResolutionEngine, with the settings of a template engine, on the
+ * threads of an executor: a fixed pool of platform threads, or one virtual
+ * thread per problem on Java versions that have them.
+ *
+ * Problems are read from an Iterator only as fast as they are solved: at most
+ * maxInFlight problems are submitted or being solved at any time, which bounds
+ * the memory used however many problems there are. Solutions are returned in
+ * the order in which they finish, not the order of the problems. The time, 
+ * expansion and memory limits of the template engine apply to each problem,
+ * and closing a batch solver that owns its executor cancels the problems 
+ * still being solved.
+ *
+ * Example:
+ * <pre>
+ * try (BatchSolver solver = new BatchSolver(4)) {
+ *     Iterator&lt;Solution&gt; solutions = solver.solve(problems.iterator());
+ *     while (solutions.hasNext()) {
+ *         Solution solution = solutions.next();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * @author Ryan Nichols
+ */
+public class BatchSolver implements AutoCloseable {
+    ExecutorService executor;
+    boolean ownsExecutor;           //True if close() should shut the executor down
+    int maxInFlight;                //Maximum number of problems submitted but not yet returned
+    ResolutionEngine settings;      //Template for the engine of each problem
+    SolutionCache cache;            //Paths already found, may be null
+
+    /**
+     * Creates a batch solver using a fixed pool of platform threads
+     * @param threadCount number of threads, usually the number of cores
+     */
+    public BatchSolver(int threadCount) {
+        this(Executors.newFixedThreadPool(threadCount, new SolverThreadFactory()), threadCount * 2);
+        this.ownsExecutor = true;
+    }
+
+    /**
+     * Creates a batch solver using the given executor, which is not shut down
+     * by close()
+     * @param executor
+     * @param maxInFlight maximum number of problems submitted to the executor
+     * and not yet returned
+     */
+    public BatchSolver(ExecutorService executor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.settings = new ResolutionEngine();
+        this.settings.setVerbose(false);
+    }
+
+    /**
+     * Creates a batch solver that solves each problem on its own virtual
+     * thread. Virtual threads are only available from Java 21, so the executor
+     * is looked up at run time.
+     * @param maxInFlight maximum number of problems solved at once
+     * @return the batch solver
+     * @throws UnsupportedOperationException if this Java version has no
+     * virtual threads
+     */
+    public static BatchSolver withVirtualThreads(int maxInFlight) {
+        ExecutorService executor;
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            executor = (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later", e);
+        }
+        BatchSolver solver = new BatchSolver(executor, maxInFlight);
+        solver.ownsExecutor = true;
+        return solver;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Starts solving problems. The returned iterator must be used by one
+     * thread only; each call to next() tops up the problems being solved and
+     * waits for the next one to finish.
+     * @param problems problems to solve, read as they are needed
+     * @return the solutions, in the order in which they finish
+     */
+    public Iterator<Solution> solve(final Iterator<Problem> problems) {
+        final CompletionService<Solution> completed = new ExecutorCompletionService<>(executor);
+        return new Iterator<Solution>() {
+            int inFlight = 0;
+
+            @Override
+            public boolean hasNext() {
+                return inFlight > 0 || problems.hasNext();
+            }
+
+            @Override
+            public Solution next() {
+                while (inFlight < maxInFlight && problems.hasNext()) {
+                    completed.submit(task(problems.next()));
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Solution solution = completed.take().get();
+                    inFlight--;
+                    return solution;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a solution", e);
+                } catch (ExecutionException e) {        //Only Errors get here, see task()
+                    inFlight--;
+                    throw (Error) e.getCause();
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Solves every problem of a list and waits for all of them
+     * @param problems
+     * @return the solutions, in the order in which they finished
+     */
+    public ArrayList<Solution> solveAll(Iterable<Problem> problems) {
+        ArrayList<Solution> solutions = new ArrayList<>();
+        Iterator<Solution> iterator = solve(problems.iterator());
+        while (iterator.hasNext()) {
+            solutions.add(iterator.next());
+        }
+        return solutions;
+    }
+
+    /**
+     * Creates the task that solves one problem. Exceptions thrown by the
+     * engine are returned in the Solution instead of being thrown. A path 
+     * taken from the cache is SOLVED without a search.
+     * @param problem
+     * @return the task
+     */
+    private Callable<Solution> task(final Problem problem) {
+        return new Callable<Solution>() {
+            @Override
+            public Solution call() {
+                long start = System.nanoTime();
+                try {
+                    ResolutionEngine engine = new ResolutionEngine(settings, problem.getInitialWorld(), problem.getGoalWorld());
+                    SolveResult result = cache == null ? engine.solveWithResult() : cache.solve(engine);
+                    return new Solution(problem, result.getStates(), result.getOutcome(), System.nanoTime() - start, null);
+                } catch (RuntimeException e) {
+                    return new Solution(problem, new ArrayList<State>(), SolveResult.Outcome.FAILED, System.nanoTime() - start, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Shuts down the executor if it was created by this batch solver. Its 
+     * threads are interrupted, which cancels the searches still running
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    /**
+     * @return the engine whose settings (heuristic, strategy, ...) are used
+     * to solve every problem. It is not verbose by default
+     */
+    public ResolutionEngine getSettings() {
+        return settings;
+    }
+
+    public void setSettings(ResolutionEngine settings) {
+        this.settings = settings;
+    }
+
+    public SolutionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @param cache cache of paths shared by every problem, null to always 
+     * search
+     */
+    public void setCache(SolutionCache cache) {
+        this.cache = cache;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+
+    /*****************************************************
+     *                  Thread Factory                   *
+     *****************************************************/
+    /**
+     * Creates daemon threads, so a batch solver that is not closed does not
+     * keep the program running
+     */
+    static class SolverThreadFactory implements ThreadFactory {
+        AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "BatchSolver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * This class searches for a path from an initial world to a goal world by 
+ * running two best first searches at once: a forward search from the initial
+ * world towards the goal world, and a backward search from the goal world 
+ * towards the initial world. Because every action can be undone (see 
+ * Action.inverse()), searching backwards from the goal is the same as 
+ * searching forwards from it, and a path found backwards is turned around by
+ * undoing its actions in reverse order.
+ * 
+ * Every state either search has reached is kept by fingerprint, so each new 
+ * state is checked against the other search in constant time. The search 
+ * stops as soon as the two meet. The side with fewer waiting states is always
+ * expanded next. A StopCondition, if set, is checked before each state is 
+ * expanded and can end the search early.
+ * 
+ * Both worlds must be complete descriptions (every block's position given).
+ * Use ResolutionEngine.solveBidirectional() rather than this class directly.
+ * @author Ryan Nichols
+ */
+public class BidirectionalSearch {
+    Heuristic heuristic;            //Not bound to a goal, each side binds it to its target
+    Zobrist zobrist;
+    Frontier forward;               //Search from the initial world
+    Frontier backward;              //Search from the goal world
+    StopCondition stopCondition;    //Decides when to give up, null to search until done
+    SearchStatistics statistics = new SearchStatistics();  //Counters of both sides
+    SolveResult.Outcome outcome;    //How the last call to solve() ended, null before the first
+
+    /**
+     * @param heuristic the heuristic to use
+     * @param zobrist
+     * @param domain domain of both worlds
+     * @param initialWorld
+     * @param goalWorld
+     */
+    public BidirectionalSearch(Heuristic heuristic, Zobrist zobrist, Domain domain, ArrayList<Predicate> initialWorld, ArrayList<Predicate> goalWorld) {
+        this.heuristic = heuristic;
+        this.zobrist = zobrist;
+        this.forward = new Frontier(domain, initialWorld, goalWorld);
+        this.backward = new Frontier(domain, goalWorld, initialWorld);
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Runs both searches until they meet or one of them runs out of states
+     * @return the goal state, whose ancestors form the path from the initial
+     * world, or null if there is no solution or the search was stopped (see
+     * getOutcome())
+     */
+    public State solve() {
+        outcome = SolveResult.Outcome.SOLVED;
+        State meeting = backward.reached(forward.root);
+        if (meeting != null) {                          //The initial world already is the goal world
+            return join(forward.root, meeting);
+        }
+        
+        while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+            if (stopCondition != null) {
+                SolveResult.Outcome stopReason = stopCondition.check(statistics, forward.reached.size() + backward.reached.size());
+                if (stopReason != null) {
+                    outcome = stopReason;
+                    return null;
+                }
+            }
+            
+            boolean forwardTurn = forward.open.size() <= backward.open.size();
+            Frontier side = forwardTurn ? forward : backward;
+            Frontier other = forwardTurn ? backward : forward;
+            
+            State current = side.open.poll();
+            statistics.expanded++;
+            if (forwardTurn && current.getHn() < statistics.bestHn && current.getPacked().getHeld() == PackedWorld.EMPTY) {
+                statistics.bestHn = current.getHn();    //Only the forward side estimates the distance to the goal
+            }
+            
+            Iterator<Successor> successors = current.successors(zobrist);
+            while (successors.hasNext()) {
+                Successor successor = successors.next();
+                statistics.generated++;
+                State known = side.reached.get(successor.getFingerprint());
+                if (known != null && known.getPacked().equals(successor.getWorld())) {
+                    statistics.duplicates++;
+                    continue;                           //Already reached by this side
+                }
+                
+                State child = successor.toState(side.distanceToTarget.estimate(successor.getWorld(), current.getHn(), successor.getChanges()));
+                statistics.heuristicEvaluations++;
+                meeting = other.reached(child);
+                if (meeting != null) {                  //The searches meet
+                    return forwardTurn ? join(child, meeting) : join(meeting, child);
+                }
+                side.add(child);
+            }
+            statistics.frontier = forward.open.size() + backward.open.size();
+            statistics.updateSizes(statistics.frontier, forward.reached.size() + backward.reached.size());
+            current.compact();
+        }
+        outcome = SolveResult.Outcome.UNSOLVABLE;
+        return null;
+    }
+
+    /**
+     * Joins the two halves of the path at a world reached by both searches
+     * @param forwardState the meeting world, as reached by the forward search
+     * @param backwardState the meeting world, as reached by the backward search
+     * @return the goal state at the end of the joined path
+     */
+    private State join(State forwardState, State backwardState) {
+        State current = forwardState;
+        State back = backwardState;
+        while (back.getParent() != null) {              //Walk the backward path towards the goal world
+            State next = new State(back.getParent().getPacked(),
+                                   back.getAction().inverse(),  //Undo the action the backward search applied
+                                   current,
+                                   current.getGn() + 1,
+                                   0);
+            next.setFingerprint(back.getParent().getFingerprint());
+            current = next;
+            back = back.getParent();
+        }
+        return current;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public long getExpandedCount() {
+        return statistics.expanded;
+    }
+
+    /**
+     * @return how the last call to solve() ended: SOLVED, UNSOLVABLE, or the
+     * outcome returned by the stop condition. null before the first call
+     */
+    public SolveResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @param stopCondition checked before each state is expanded, null to
+     * search until the searches meet or run out of states
+     */
+    public void setStopCondition(StopCondition stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param statistics counters to update while searching, for example 
+     * those of the engine running the search
+     */
+    public void setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+
+    /*****************************************************
+     *                     Frontier                      *
+     *****************************************************/
+    /**
+     * One direction of the search: the states waiting to be evaluated and
+     * every state reached so far, by fingerprint.
+     */
+    class Frontier {
+        PriorityQueue<State> open = new PriorityQueue<>();
+        FingerprintMap reached = new FingerprintMap();
+        Heuristic distanceToTarget;         //Heuristic towards the world this side is heading to
+        State root;
+
+        Frontier(Domain domain, ArrayList<Predicate> start, ArrayList<Predicate> target) {
+            PackedWorld startPacked = PackedWorld.pack(domain, start);
+            this.distanceToTarget = heuristic.forGoal(PackedWorld.pack(domain, target));
+            this.root = new State(startPacked, null, null, 0, distanceToTarget.estimate(startPacked));
+            this.root.setFingerprint(zobrist.fingerprint(start));
+            add(root);
+        }
+
+        void add(State state) {
+            open.add(state);
+            reached.put(state.getFingerprint(), state);
+        }
+
+        /**
+         * @param state
+         * @return the state of this side with the same world, or null if this
+         * side has not reached it
+         */
+        State reached(State state) {
+            State match = reached.get(state.getFingerprint());
+            if (match != null && match.getPacked().equals(state.getPacked())) {
+                return match;
+            }
+            return null;
+        }
+    }
+}
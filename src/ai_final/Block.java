@@ -22,8 +22,20 @@ public class Block {
         this.name = name;
     }    
     
-    public boolean equals(Block other) {
-        return name.equals(other.getName());
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Block)) {
+            return false;
+        }
+        return name.equals(((Block) o).getName());
+    }
+    
+    @Override
+    public int hashCode() {
+        return name.hashCode();
     }
     
     public String toString() {
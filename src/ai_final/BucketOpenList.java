@@ -0,0 +1,182 @@
+package ai_final;
+
+import java.util.Arrays;
+
+/**
+ * This class is an open list for strategies that order states by a small
+ * non-negative integer f: h for SearchStrategy.GREEDY and g + h for
+ * SearchStrategy.ASTAR. Instead of a heap, it keeps one bucket per value of f,
+ * split again by g, so adding and removing a state takes constant time and no
+ * comparisons. States with the same f are taken highest g first for A*, 
+ * which is the same as lowest h first, and lowest g first for greedy search,
+ * which keeps its paths short. Within the same f and g, the most recently 
+ * added state is taken first.
+ *
+ * Like IndexedOpenList, each world is only queued once, and a state keeps its
+ * position in its bucket in openSlot so it can be replaced when its world is
+ * reached with fewer actions.
+ * @author Ryan Nichols
+ */
+public class BucketOpenList implements OpenList {
+    boolean includeG;           //True if f = g + h, false if f = h
+    State[][][] buckets;        //States by f then g, each used as a stack
+    int[][] counts;             //Number of states in each bucket, by f then g
+    int[] fCounts;              //Number of states with each f
+    int[] nextG;                //Highest (A*) or lowest (greedy) g that may have states, by f
+    int minF;                   //Lowest f that may have states
+    int size;
+    FingerprintMap queued;      //The indexed state of each queued world, by fingerprint
+
+    /**
+     * @param includeG true to order states by g + h, false to order them by h
+     */
+    public BucketOpenList(boolean includeG) {
+        this.includeG = includeG;
+        this.buckets = new State[64][][];
+        this.counts = new int[64][];
+        this.fCounts = new int[64];
+        this.nextG = new int[64];
+        this.minF = Integer.MAX_VALUE;
+        this.queued = new FingerprintMap();
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    @Override
+    public boolean add(State state) {
+        State match = queued.put(state.getFingerprint(), state);
+        if (match == null) {
+            push(state);
+            return true;
+        }
+        if (!match.getPacked().equals(state.getPacked())) {     //Fingerprint collision, queue it unindexed
+            queued.put(match.getFingerprint(), match);
+            push(state);
+            return true;
+        }
+        if (state.getGn() < match.getGn()) {                    //Shorter path to the same world
+            remove(match);
+            push(state);
+            return true;
+        }
+        queued.put(match.getFingerprint(), match);
+        return false;
+    }
+
+    @Override
+    public State poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (fCounts[minF] == 0) {
+            minF++;
+        }
+        int f = minF;
+        while (counts[f][nextG[f]] == 0) {
+            nextG[f] += includeG ? -1 : 1;
+        }
+        int g = nextG[f];
+        State first = buckets[f][g][counts[f][g] - 1];
+
+        State indexed = queued.remove(first.getFingerprint());
+        if (indexed != first && indexed != null) {              //First was queued unindexed, keep the indexed one
+            queued.put(indexed.getFingerprint(), indexed);
+        }
+        remove(first);
+        return first;
+    }
+
+    @Override
+    public State find(Successor successor) {
+        State match = queued.get(successor.getFingerprint());
+        if (match == null || !match.getPacked().equals(successor.getWorld())) {
+            return null;
+        }
+        return match;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /*****************************************************
+     *                 Bucket Methods                    *
+     *****************************************************/
+    /**
+     * @param state
+     * @return the bucket of the state by f
+     */
+    private int keyOf(State state) {
+        int f = includeG ? state.getGn() + state.getHn() : state.getHn();
+        if (f < 0) {
+            throw new IllegalArgumentException("BucketOpenList needs f >= 0, got " + f);
+        }
+        return f;
+    }
+
+    private void push(State state) {
+        int f = keyOf(state);
+        int g = state.getGn();
+        if (f >= buckets.length) {
+            int length = Math.max(f + 1, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, length);
+            counts = Arrays.copyOf(counts, length);
+            fCounts = Arrays.copyOf(fCounts, length);
+            nextG = Arrays.copyOf(nextG, length);
+        }
+        if (buckets[f] == null) {
+            buckets[f] = new State[Math.max(g + 1, 16)][];
+            counts[f] = new int[buckets[f].length];
+        }
+        else if (g >= buckets[f].length) {
+            int length = Math.max(g + 1, buckets[f].length * 2);
+            buckets[f] = Arrays.copyOf(buckets[f], length);
+            counts[f] = Arrays.copyOf(counts[f], length);
+        }
+        State[] bucket = buckets[f][g];
+        if (bucket == null) {
+            bucket = buckets[f][g] = new State[16];
+        }
+        else if (counts[f][g] == bucket.length) {
+            bucket = buckets[f][g] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+
+        state.openSlot = counts[f][g]++;
+        bucket[state.openSlot] = state;
+        if (fCounts[f]++ == 0) {
+            nextG[f] = g;
+        }
+        else {
+            nextG[f] = includeG ? Math.max(nextG[f], g) : Math.min(nextG[f], g);
+        }
+        minF = Math.min(minF, f);
+        size++;
+    }
+
+    /**
+     * Takes a state out of its bucket by moving the bucket's last state into
+     * its position
+     * @param state a queued state
+     */
+    private void remove(State state) {
+        int f = keyOf(state);
+        int g = state.getGn();
+        State[] bucket = buckets[f][g];
+        int last = --counts[f][g];
+        bucket[state.openSlot] = bucket[last];
+        bucket[state.openSlot].openSlot = state.openSlot;
+        bucket[last] = null;
+        state.openSlot = -1;
+        fCounts[f]--;
+        size--;
+    }
+}
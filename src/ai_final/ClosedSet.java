@@ -0,0 +1,110 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This class holds the states that have already been evaluated by the solver.
+ * States are stored by the Zobrist fingerprint of their world, so checking
+ * whether a world has already been evaluated takes constant expected time no
+ * matter how many states the set holds.
+ * @author Ryan Nichols
+ */
+public class ClosedSet {
+    FingerprintMap states;
+
+    public ClosedSet() {
+        this.states = new FingerprintMap();
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Adds an evaluated state to the set. The state's fingerprint must already
+     * be set.
+     * In the (extremely unlikely) case that two different worlds share a
+     * fingerprint, the older state is replaced. This only means that world may
+     * be evaluated again, it never causes a world to be wrongly skipped.
+     * @param state
+     */
+    public void add(State state) {
+        states.put(state.getFingerprint(), state);
+    }
+
+    /**
+     * Checks if the given world has already been evaluated
+     * @param world the world to look for
+     * @param fingerprint the Zobrist fingerprint of the world
+     * @return true if an evaluated state has the same world; false otherwise
+     */
+    public boolean contains(ArrayList<Predicate> world, long fingerprint) {
+        State match = states.get(fingerprint);
+        if (match == null) {
+            return false;
+        }
+        ArrayList<Predicate> other = match.getPredicate();
+        return other.size() == world.size() && other.containsAll(world); //Rule out a fingerprint collision
+    }
+
+    /**
+     * Checks if the given packed world has already been evaluated. The states
+     * in the set must also hold packed worlds.
+     * @param world the packed world to look for
+     * @param fingerprint the Zobrist fingerprint of the world
+     * @return true if an evaluated state has the same world; false otherwise
+     */
+    public boolean contains(PackedWorld world, long fingerprint) {
+        State match = states.get(fingerprint);
+        return match != null && world.equals(match.getPacked());   //Rule out a fingerprint collision
+    }
+
+    /**
+     * Checks if the world of the given successor has already been evaluated.
+     * The successor's world is only built if an evaluated state has the same
+     * fingerprint.
+     * @param successor
+     * @return true if an evaluated state has the same world; false otherwise
+     */
+    public boolean contains(Successor successor) {
+        State match = states.get(successor.getFingerprint());
+        return match != null && successor.getWorld().equals(match.getPacked());
+    }
+
+    /**
+     * Checks if the given state's world has already been evaluated
+     * @param state
+     * @return true if an evaluated state has the same world; false otherwise
+     */
+    public boolean contains(State state) {
+        if (state.getPacked() != null) {
+            return contains(state.getPacked(), state.getFingerprint());
+        }
+        return contains(state.getPredicate(), state.getFingerprint());
+    }
+
+    /**
+     * Returns the evaluated state with the same world as the given successor.
+     * The successor's world is only built if an evaluated state has the same
+     * fingerprint.
+     * @param successor
+     * @return the evaluated state, or null if the world was not evaluated
+     */
+    public State find(Successor successor) {
+        State match = states.get(successor.getFingerprint());
+        return match != null && successor.getWorld().equals(match.getPacked()) ? match : null;
+    }
+
+    /**
+     * Returns the evaluated state with the same world as the given state
+     * @param state
+     * @return the evaluated state, or null if the world was not evaluated
+     */
+    public State find(State state) {
+        return contains(state) ? states.get(state.getFingerprint()) : null;
+    }
+
+    public int size() {
+        return states.size();
+    }
+}
@@ -0,0 +1,111 @@
+package ai_final;
+
+import java.util.Arrays;
+
+/**
+ * This heuristic improves on MisplacedBlocksHeuristic by finding blocks that
+ * must be moved twice. If a block X that is not in its final position sits
+ * above a block Z in the same stack, Z is not in its final position either,
+ * and Z must end up below X in the goal world, then X has to be moved off Z
+ * before Z can be moved, and cannot go to its final position at that time
+ * (its final position needs Z in place beneath it). X must therefore be moved
+ * once to get it out of the way and once more to its final position, which
+ * costs 4 actions rather than 2. The estimate is still admissible.
+ * Like MisplacedBlocksHeuristic, the estimate of a child world is worked out
+ * from that of its parent by looking again at the moved block only.
+ * @author Ryan Nichols
+ */
+public class DeadlockHeuristic extends MisplacedBlocksHeuristic {
+    int[] goalBase;     //Bottom block of each block's goal stack
+    int[] goalHeight;   //Height of each block in its goal stack, 0 at the bottom
+
+    public DeadlockHeuristic() {
+    }
+
+    @Override
+    public Heuristic forGoal(PackedWorld goal) {
+        DeadlockHeuristic heuristic = new DeadlockHeuristic();
+        heuristic.goal = goal;
+        int blockCount = goal.getDomain().getBlockCount();
+        heuristic.goalBase = new int[blockCount];
+        heuristic.goalHeight = new int[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            int base = b;
+            int height = 0;
+            while (goal.getSupport(base) >= 0) {    //Walk down to the bottom of the goal stack
+                base = goal.getSupport(base);
+                height++;
+            }
+            heuristic.goalBase[b] = base;
+            heuristic.goalHeight[b] = height;
+        }
+        return heuristic;
+    }
+
+    /**
+     * Goes up each stack from the bottom, remembering for each goal stack the
+     * lowest goal height of a block seen so far that is not in its final 
+     * position, so every block is only looked at twice
+     * @param world
+     * @return the estimate
+     */
+    @Override
+    public int estimate(PackedWorld world) {
+        int blockCount = world.getDomain().getBlockCount();
+        int[] above = world.aboveBlocks();
+        int[] lowestMisplaced = new int[blockCount];    //By goal base, for the stack being climbed
+        Arrays.fill(lowestMisplaced, Integer.MAX_VALUE);
+        int moves = 0;
+        for (int bottom = 0; bottom < blockCount; bottom++) {
+            short support = world.getSupport(bottom);
+            if (support == PackedWorld.HELD) {
+                moves += 1;
+                continue;
+            }
+            if (support >= 0) {                                     //Not at the bottom of a stack
+                continue;
+            }
+            boolean isFinal = true;                                 //True until a block is out of place
+            for (int b = bottom; b >= 0; b = above[b]) {
+                isFinal = isFinal && world.getSupport(b) == goal.getSupport(b);
+                if (!isFinal) {
+                    moves += lowestMisplaced[goalBase[b]] < goalHeight[b] ? 4 : 2;
+                    lowestMisplaced[goalBase[b]] = Math.min(lowestMisplaced[goalBase[b]], goalHeight[b]);
+                }
+            }
+            for (int b = bottom; b >= 0; b = above[b]) {            //Ready for the next stack
+                lowestMisplaced[goalBase[b]] = Integer.MAX_VALUE;
+            }
+        }
+        return moves;
+    }
+
+    @Override
+    protected int cost(int block, short support, PackedWorld world) {
+        int cost = super.cost(block, support, world);
+        return cost == 2 && mustMoveTwice(block, support, world) ? 4 : cost;
+    }
+
+    /**
+     * Checks if a block that is not in its final position sits above a block
+     * that is not in its final position and must end up below it. A block is
+     * not in its final position if it or a block below it is out of place, so
+     * such a block must be seen, walking down, before a block out of place.
+     * @param block
+     * @param support what the block sits on (see PackedWorld)
+     * @param world world holding the blocks below the block
+     * @return true if the block must be moved twice
+     */
+    private boolean mustMoveTwice(int block, short support, PackedWorld world) {
+        boolean candidate = false;                          //A block that must end up below was seen above the last block out of place
+        for (int below = support; below >= 0; below = world.getSupport(below)) {   //Walk down the current stack
+            if (goalBase[below] == goalBase[block] && goalHeight[below] < goalHeight[block]) {
+                candidate = true;
+            }
+            if (candidate && world.getSupport(below) != goal.getSupport(below)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,331 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class defines the blocks and locations that make up a problem, and
+ * gives each of them a small integer index. The indices are used by
+ * PackedWorld to describe a world as an array instead of a list of predicates.
+ * The domain is also the interning table of its problem: every predicate that
+ * can be built from its blocks and locations has a small integer id, and is 
+ * created once, the first time it is asked for, so converting packed worlds
+ * back to predicates does not create new objects. The table belongs to the 
+ * domain and is released with it.
+ * @author Ryan Nichols
+ */
+public class Domain {
+    ArrayList<Block> blocks;
+    ArrayList<Location> locations;
+    HashMap<String, Integer> blockIndex;    //Index of each block, by name
+    HashMap<String, Integer> locationIndex; //Index of each location, by name
+    volatile AtomicReferenceArray<Predicate> predicates;   //Predicates created so far, by id, null until the first one is asked for
+
+    /**
+     * Default constructor, creates a domain with no blocks or locations
+     */
+    public Domain() {
+        this.blocks = new ArrayList<>();
+        this.locations = new ArrayList<>();
+        this.blockIndex = new HashMap<>();
+        this.locationIndex = new HashMap<>();
+    }
+
+    /**
+     * Creates a domain containing every block and location mentioned in the
+     * given worlds, indexed in the order in which they first appear.
+     * @param worlds one or more lists of predicates
+     * @return the domain of the worlds
+     */
+    @SafeVarargs
+    public static Domain fromWorlds(ArrayList<Predicate>... worlds) {
+        Domain domain = new Domain();
+        for (ArrayList<Predicate> world : worlds) {
+            for (Predicate p : world) {
+                if (p.getArgument1() != null) {
+                    domain.addBlock(p.getArgument1());
+                }
+                if (p.getArgument2() != null) {
+                    domain.addBlock(p.getArgument2());
+                }
+                if (p.getLocation() != null) {
+                    domain.addLocation(p.getLocation());
+                }
+            }
+        }
+        return domain;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Adds a block to the domain if it is not already part of it
+     * @param block
+     * @return the index of the block
+     */
+    public int addBlock(Block block) {
+        Integer index = blockIndex.get(block.getName());
+        if (index == null) {
+            if (predicates != null) {
+                throw new IllegalStateException("Cannot add a block once predicates have been created");
+            }
+            index = blocks.size();
+            blocks.add(block);
+            blockIndex.put(block.getName(), index);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a location to the domain if it is not already part of it
+     * @param location
+     * @return the index of the location
+     */
+    public int addLocation(Location location) {
+        Integer index = locationIndex.get(location.getName());
+        if (index == null) {
+            if (predicates != null) {
+                throw new IllegalStateException("Cannot add a location once predicates have been created");
+            }
+            index = locations.size();
+            locations.add(location);
+            locationIndex.put(location.getName(), index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns this domain's ON(a, b) predicate
+     * @param a index of the top block
+     * @param b index of the bottom block
+     * @return the predicate
+     */
+    public Predicate on(int a, int b) {
+        return predicate(a * blocks.size() + b);
+    }
+
+    /**
+     * Returns this domain's ONTABLE(a, l) predicate
+     * @param a index of the block
+     * @param l index of the location
+     * @return the predicate
+     */
+    public Predicate onTable(int a, int l) {
+        int blockCount = blocks.size();
+        return predicate(blockCount * blockCount + a * locations.size() + l);
+    }
+
+    /**
+     * Returns this domain's CLEAR(a) predicate
+     * @param a index of the block
+     * @return the predicate
+     */
+    public Predicate clear(int a) {
+        int blockCount = blocks.size();
+        return predicate(blockCount * (blockCount + locations.size()) + a);
+    }
+
+    /**
+     * Returns this domain's CLEARLOC(l) predicate
+     * @param l index of the location
+     * @return the predicate
+     */
+    public Predicate clearLoc(int l) {
+        int blockCount = blocks.size();
+        return predicate(blockCount * (blockCount + locations.size() + 1) + l);
+    }
+
+    /**
+     * Returns this domain's HOLDING(a) predicate
+     * @param a index of the block
+     * @return the predicate
+     */
+    public Predicate holding(int a) {
+        int blockCount = blocks.size();
+        int locationCount = locations.size();
+        return predicate(blockCount * (blockCount + locationCount + 1) + locationCount + a);
+    }
+
+    /**
+     * Works out the id that the given predicate has, or would have, in this
+     * domain. The ids number the ON predicates first, then the ONTABLE, 
+     * CLEAR, CLEARLOC and HOLDING predicates, each group ordered by block and
+     * then by location index.
+     * @param p any predicate, whether or not it was created by this domain
+     * @return the id of the predicate, or -1 if one of its blocks or its 
+     * location is not part of this domain
+     */
+    public int idOf(Predicate p) {
+        if (p.domain == this) {
+            return p.id;
+        }
+        int a = p.getArgument1() == null ? -1 : indexOf(p.getArgument1());
+        int l = p.getLocation() == null ? -1 : indexOf(p.getLocation());
+        int blockCount = blocks.size();
+        int locationCount = locations.size();
+        switch (p.getName()) {
+            case Predicate.ON:
+                int b = p.getArgument2() == null ? -1 : indexOf(p.getArgument2());
+                return a < 0 || b < 0 ? -1 : a * blockCount + b;
+            case Predicate.ONTABLE:
+                return a < 0 || l < 0 ? -1 : blockCount * blockCount + a * locationCount + l;
+            case Predicate.CLEAR:
+                return a < 0 ? -1 : blockCount * (blockCount + locationCount) + a;
+            case Predicate.CLEARLOC:
+                return l < 0 ? -1 : blockCount * (blockCount + locationCount + 1) + l;
+            case Predicate.HOLDING:
+                return a < 0 ? -1 : blockCount * (blockCount + locationCount + 1) + locationCount + a;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns this domain's instance of a predicate equal to the given one
+     * @param p
+     * @return the predicate of this domain, or p itself if it mentions a 
+     * block or location that is not part of this domain
+     */
+    public Predicate intern(Predicate p) {
+        int id = idOf(p);
+        return id < 0 ? p : predicate(id);
+    }
+
+    /**
+     * Replaces the predicates of a world by this domain's instances
+     * @param world
+     * @return a new list holding the predicates of this domain equal to those
+     * of the world, in the same order
+     */
+    public ArrayList<Predicate> internAll(ArrayList<Predicate> world) {
+        ArrayList<Predicate> interned = new ArrayList<>(world.size());
+        for (Predicate p : world) {
+            interned.add(intern(p));
+        }
+        return interned;
+    }
+
+    /**
+     * @return the number of distinct predicates that can be built from the
+     * blocks and locations of this domain, which is one more than the 
+     * largest id
+     */
+    public int getPredicateCount() {
+        int blockCount = blocks.size();
+        int locationCount = locations.size();
+        return blockCount * (blockCount + locationCount + 2) + locationCount;
+    }
+
+    /**
+     * Returns the predicate with the given id, creating it the first time it
+     * is asked for. Blocks and locations must not be added to the domain 
+     * after that, since they would change the ids.
+     * @param id
+     * @return the predicate
+     */
+    Predicate predicate(int id) {
+        AtomicReferenceArray<Predicate> table = predicates;
+        if (table == null) {
+            table = createTable();
+        }
+        Predicate p = table.get(id);
+        if (p == null) {
+            table.compareAndSet(id, null, createPredicate(id));
+            p = table.get(id);          //Another thread may have won the race
+        }
+        return p;
+    }
+
+    /**
+     * Creates the table of predicates, all missing at first
+     * @return the table
+     */
+    private synchronized AtomicReferenceArray<Predicate> createTable() {
+        if (predicates == null) {
+            predicates = new AtomicReferenceArray<>(getPredicateCount());
+        }
+        return predicates;
+    }
+
+    /**
+     * Creates the predicate with the given id, the inverse of idOf()
+     * @param id
+     * @return a new predicate belonging to this domain
+     */
+    private Predicate createPredicate(int id) {
+        int blockCount = blocks.size();
+        int locationCount = locations.size();
+        int onTables = blockCount * blockCount;         //Id of the first ONTABLE predicate
+        int clears = onTables + blockCount * locationCount;
+        int clearLocs = clears + blockCount;
+        int holdings = clearLocs + locationCount;
+        Predicate p;
+        if (id < onTables) {
+            p = new Predicate(Predicate.ON, blocks.get(id / blockCount), blocks.get(id % blockCount));
+        }
+        else if (id < clears) {
+            p = new Predicate(Predicate.ONTABLE, blocks.get((id - onTables) / locationCount), locations.get((id - onTables) % locationCount));
+        }
+        else if (id < clearLocs) {
+            p = new Predicate(Predicate.CLEAR, blocks.get(id - clears));
+        }
+        else if (id < holdings) {
+            p = new Predicate(Predicate.CLEARLOC, locations.get(id - clearLocs));
+        }
+        else {
+            p = new Predicate(Predicate.HOLDING, blocks.get(id - holdings));
+        }
+        p.domain = this;
+        p.id = id;
+        return p;
+    }
+
+    /**
+     * @param block
+     * @return the index of the block, or -1 if it is not part of this domain
+     */
+    public int indexOf(Block block) {
+        Integer index = blockIndex.get(block.getName());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param location
+     * @return the index of the location, or -1 if it is not part of this domain
+     */
+    public int indexOf(Location location) {
+        Integer index = locationIndex.get(location.getName());
+        return index == null ? -1 : index;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public Block getBlock(int index) {
+        return blocks.get(index);
+    }
+
+    public Location getLocation(int index) {
+        return locations.get(index);
+    }
+
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    public int getLocationCount() {
+        return locations.size();
+    }
+
+    public ArrayList<Block> getBlocks() {
+        return blocks;
+    }
+
+    public ArrayList<Location> getLocations() {
+        return locations;
+    }
+}
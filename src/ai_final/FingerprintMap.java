@@ -0,0 +1,133 @@
+package ai_final;
+
+/**
+ * This class maps Zobrist fingerprints to states, like a HashMap<Long, State>,
+ * but stores the fingerprints as plain longs in one array and the states in
+ * another (open addressing with linear probing). Nothing is allocated when an
+ * entry is added or removed, which matters for maps that hold hundreds of
+ * thousands of states and change on every step of the search.
+ * Fingerprints are already random, so their low bits are used directly as
+ * the starting slot.
+ * @author Ryan Nichols
+ */
+public class FingerprintMap {
+    long[] keys;
+    State[] values;     //null for an empty slot
+    int size;
+    int mask;           //keys.length - 1, the length is a power of 2
+
+    public FingerprintMap() {
+        this(64);
+    }
+
+    /**
+     * @param capacity number of entries the map can hold before it grows
+     */
+    public FingerprintMap(int capacity) {
+        int length = 16;
+        while (length * 3 / 4 < capacity) {
+            length *= 2;
+        }
+        this.keys = new long[length];
+        this.values = new State[length];
+        this.mask = length - 1;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * @param fingerprint
+     * @return the state stored for the fingerprint, or null if there is none
+     */
+    public State get(long fingerprint) {
+        for (int i = (int) fingerprint & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == fingerprint) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a state for a fingerprint, replacing any state already stored
+     * @param fingerprint
+     * @param state must not be null
+     * @return the state previously stored for the fingerprint, or null
+     */
+    public State put(long fingerprint, State state) {
+        int i = (int) fingerprint & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == fingerprint) {
+                State previous = values[i];
+                values[i] = state;
+                return previous;
+            }
+        }
+        keys[i] = fingerprint;
+        values[i] = state;
+        if (++size > keys.length * 3 / 4) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Removes the state stored for a fingerprint
+     * @param fingerprint
+     * @return the removed state, or null if there was none
+     */
+    public State remove(long fingerprint) {
+        int i = (int) fingerprint & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == fingerprint) {
+                State removed = values[i];
+                closeGap(i);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+
+    /*****************************************************
+     *                 Utility Methods                   *
+     *****************************************************/
+    /**
+     * Empties a slot, then moves back the entries after it that could no
+     * longer be found because of the gap
+     * @param gap
+     */
+    private void closeGap(int gap) {
+        values[gap] = null;
+        for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = (int) keys[i] & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {   //The gap lies between the entry's home slot and its slot
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                values[i] = null;
+                gap = i;
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        State[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new State[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ai_final;
+
+/**
+ * This class lets ResolutionEngine emit Java Flight Recorder events without
+ * depending on jdk.jfr, which older and smaller Java runtimes do not have. 
+ * The events are in JfrRecorder, which is only loaded if jdk.jfr is present,
+ * and is left out of the build when the JDK does not have it (see build.xml).
+ *
+ * While a recording with the ai_final.Solve event enabled is running, each 
+ * call to solve() gets a SearchListener that emits the events, in front of 
+ * the engine's own listener. Otherwise solve() runs as if there was no flight
+ * recorder. Events are disabled altogether with -Dai_final.jfr=false.
+ * @author Ryan Nichols
+ */
+abstract class FlightRecorderSupport {
+    final static String RECORDER_CLASS = "ai_final.JfrRecorder";
+
+    final static FlightRecorderSupport INSTANCE = load();    //null if flight recording is not available
+
+    /**
+     * @return true if a recording that wants the events is running
+     */
+    abstract boolean isRecording();
+
+    /**
+     * @param next listener to pass every call on to, may be null
+     * @return a listener that emits the events of one search
+     */
+    abstract SearchListener listenerFor(SearchListener next);
+
+    /**
+     * @param next the engine's own listener, may be null
+     * @return a listener emitting flight recorder events and passing every 
+     * call on to next, or next itself if nothing is recording
+     */
+    static SearchListener wrap(SearchListener next) {
+        if (INSTANCE != null && INSTANCE.isRecording()) {
+            return INSTANCE.listenerFor(next);
+        }
+        return next;
+    }
+
+    private static FlightRecorderSupport load() {
+        if ("false".equals(System.getProperty("ai_final.jfr"))) {
+            return null;
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (FlightRecorderSupport) Class.forName(RECORDER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;                                //No jdk.jfr, or built without JfrRecorder
+        }
+    }
+}
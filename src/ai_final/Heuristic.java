@@ -0,0 +1,46 @@
+package ai_final;
+
+/**
+ * This interface defines a heuristic function, which estimates the number of
+ * actions needed to get from a world to a goal world. Lower is better.
+ * 
+ * A heuristic is selected by passing it to ResolutionEngine.setHeuristic(). 
+ * The engine then calls forGoal() to get an instance of the heuristic for the
+ * goal world of the problem being solved, and uses that instance to estimate
+ * the distance of every state. An instance returned by forGoal() may be used
+ * by several threads at once.
+ * @author Ryan Nichols
+ */
+public interface Heuristic {
+    /**
+     * Returns an instance of this heuristic that estimates distances to the
+     * given goal world
+     * @param goal the packed goal world
+     * @return the heuristic for that goal
+     */
+    Heuristic forGoal(PackedWorld goal);
+    
+    /**
+     * Estimates the distance from a world to the goal world
+     * @param world
+     * @return estimated number of actions to reach the goal world
+     */
+    int estimate(PackedWorld world);
+    
+    /**
+     * Estimates the distance from a world to the goal world, given the 
+     * estimate for the world it was obtained from. Heuristics that can use 
+     * the changes to avoid looking at the whole world should do so.
+     * @param world the new world
+     * @param parentEstimate the estimate for the world before the changes
+     * @param changes the predicates removed and added by the action applied
+     * @return estimated number of actions to reach the goal world
+     */
+    int estimate(PackedWorld world, int parentEstimate, Changes changes);
+    
+    /**
+     * @return true if this heuristic never overestimates the number of 
+     * actions needed, which is required to find the shortest path
+     */
+    boolean isAdmissible();
+}
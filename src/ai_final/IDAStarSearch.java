@@ -0,0 +1,210 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * This class finds a shortest path from an initial world to a goal world with
+ * iterative deepening A* (IDA*). Instead of keeping every state it has seen, 
+ * it runs a series of depth first searches, each one cut off once the 
+ * estimated total path length (gn + hn) of a state goes over a threshold. The
+ * threshold starts at the estimate for the initial state and is raised to the
+ * smallest estimate that went over it after each unsuccessful search.
+ * 
+ * Only the states on the current path are kept in memory, so memory use grows
+ * with the length of the solution rather than the number of states searched.
+ * The heuristic must never overestimate the distance to the goal for the path
+ * found to be the shortest one. A StopCondition, if set, is checked before 
+ * each state is expanded and can end the search early.
+ * 
+ * Use ResolutionEngine.solveIDAStar() rather than this class directly.
+ * @author Ryan Nichols
+ */
+public class IDAStarSearch {
+    Heuristic heuristic;            //Must be admissible and bound to the goal
+    Zobrist zobrist;
+    PackedWorld goal;
+    long goalFingerprint;
+    LocationSymmetry symmetry;      //Interchangeable locations, null to try them all
+    boolean macroMoves;             //True to search with Moves instead of single actions
+    HashMap<Long, State> path;      //States on the current path, by fingerprint
+    State finalState;               //The goal state, once found
+    StopCondition stopCondition;    //Decides when to give up, null to search until done
+    SearchStatistics statistics = new SearchStatistics();  //Counters over all iterations
+    SolveResult.Outcome outcome;    //How the last call to solve() ended, null before the first
+    SolveResult.Outcome stopReason; //Why the stop condition ended the search, null if it did not
+
+    //Returned by search() when the goal was found
+    final static int FOUND = -1;
+    //Returned by search() when the stop condition ended the search
+    final static int STOPPED = -2;
+
+    /**
+     * @param heuristic admissible heuristic for the goal world
+     * @param zobrist 
+     * @param goal packed goal world
+     * @param goalFingerprint fingerprint of the goal world
+     */
+    public IDAStarSearch(Heuristic heuristic, Zobrist zobrist, PackedWorld goal, long goalFingerprint) {
+        this.heuristic = heuristic;
+        this.zobrist = zobrist;
+        this.goal = goal;
+        this.goalFingerprint = goalFingerprint;
+        this.path = new HashMap<>();
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Runs depth first searches with increasing thresholds until the goal is
+     * found or it is known that it cannot be reached
+     * @param initState state of the initial world, holding a packed world 
+     * and its fingerprint
+     * @return the goal state, whose ancestors form the path, or null if there
+     * is no solution or the search was stopped (see getOutcome())
+     */
+    public State solve(State initState) {
+        initState.setHn(heuristic.estimate(initState.getPacked()));
+        statistics.heuristicEvaluations++;
+        int threshold = initState.getGn() + initState.getHn();
+        finalState = null;
+        stopReason = null;
+        
+        while (finalState == null && stopReason == null && threshold != Integer.MAX_VALUE) {
+            threshold = search(initState, threshold);   //Next threshold, FOUND or STOPPED
+        }
+        
+        if (finalState != null) {
+            outcome = SolveResult.Outcome.SOLVED;
+        }
+        else {
+            outcome = stopReason != null ? stopReason : SolveResult.Outcome.UNSOLVABLE;
+        }
+        return finalState;
+    }
+
+    /**
+     * Depth first search below the given state, cut off at the threshold
+     * @param current
+     * @param threshold largest gn + hn of states that may be expanded
+     * @return FOUND if the goal was found, STOPPED if the stop condition 
+     * ended the search; otherwise the smallest gn + hn that went over the 
+     * threshold, or Integer.MAX_VALUE if none did
+     */
+    private int search(State current, int threshold) {
+        int fn = current.getGn() + current.getHn();     //Always A* ordering, whatever calcFn() does
+        if (fn > threshold) {
+            return fn;
+        }
+        if (current.getFingerprint() == goalFingerprint && current.getPacked().equals(goal)) {
+            finalState = current;
+            return FOUND;
+        }
+        
+        if (stopCondition != null) {
+            stopReason = stopCondition.check(statistics, path.size());
+            if (stopReason != null) {
+                return STOPPED;
+            }
+        }
+        
+        //Create the children of this state, leaving out those already on the path
+        statistics.expanded++;
+        if (current.getHn() < statistics.bestHn && current.getPacked().getHeld() == PackedWorld.EMPTY) {
+            statistics.bestHn = current.getHn();
+        }
+        path.put(current.getFingerprint(), current);
+        statistics.updateSizes(0, path.size());
+        ArrayList<State> children = new ArrayList<>();
+        Iterator<Successor> successors = current.successors(zobrist, symmetry, macroMoves);
+        while (successors.hasNext()) {
+            Successor successor = successors.next();
+            statistics.generated++;
+            State onPath = path.get(successor.getFingerprint());
+            if (onPath != null && onPath.getPacked().equals(successor.getWorld())) {
+                statistics.duplicates++;
+                continue;   //Going back to a state on the path can never be shorter
+            }
+            children.add(successor.toState(heuristic.estimate(successor.getWorld(), current.getHn(), successor.getChanges())));
+            statistics.heuristicEvaluations++;
+        }
+        current.compact();  //Keep only the packed world while the children are searched
+        
+        //Search the most promising children first
+        Collections.sort(children, new Comparator<State>() {
+            @Override
+            public int compare(State a, State b) {
+                return Integer.compare(a.getHn(), b.getHn());
+            }
+        });
+        int minExceeded = Integer.MAX_VALUE;
+        for (State child : children) {
+            int result = search(child, threshold);
+            if (result == FOUND || result == STOPPED) {
+                break;
+            }
+            minExceeded = Math.min(minExceeded, result);
+        }
+        path.remove(current.getFingerprint());
+        if (finalState != null) {
+            return FOUND;
+        }
+        return stopReason != null ? STOPPED : minExceeded;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public long getExpandedCount() {
+        return statistics.expanded;
+    }
+
+    /**
+     * @return how the last call to solve() ended: SOLVED, UNSOLVABLE, or the
+     * outcome returned by the stop condition. null before the first call
+     */
+    public SolveResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @param stopCondition checked before each state is expanded, null to
+     * search until the goal is found or known to be unreachable
+     */
+    public void setStopCondition(StopCondition stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param statistics counters to update while searching, for example 
+     * those of the engine running the search
+     */
+    public void setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @param symmetry interchangeable locations of the goal world, only one
+     * of which is tried when putting a block down. null to try them all
+     */
+    public void setSymmetry(LocationSymmetry symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    /**
+     * @param macroMoves true to search with Moves instead of single actions
+     */
+    public void setMacroMoves(boolean macroMoves) {
+        this.macroMoves = macroMoves;
+    }
+}
@@ -0,0 +1,151 @@
+package ai_final;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class holds the states the solver has not evaluated yet, as a binary
+ * heap in the same order as a PriorityQueue. Unlike a PriorityQueue, it also
+ * maps the Zobrist fingerprint of each queued world to its state, and each
+ * state remembers its slot in the heap, so a world is only queued once: 
+ * adding a world that is already queued either replaces the queued state, if
+ * the new state reached the world with fewer actions (decrease-key), or is 
+ * ignored.
+ *
+ * In the (extremely unlikely) case that two different worlds share a
+ * fingerprint, the second one is queued without an entry in the map. It can
+ * then be queued more than once, like with a PriorityQueue, but it is never
+ * lost or confused with the other world.
+ * @author Ryan Nichols
+ */
+public class IndexedOpenList implements OpenList {
+    Comparator<State> order;
+    State[] heap;                       //heap[0] is the next state to evaluate
+    int size;
+    FingerprintMap queued;              //The indexed state of each queued world, by fingerprint
+
+    /**
+     * @param order order in which states are taken from the list
+     */
+    public IndexedOpenList(Comparator<State> order) {
+        this.order = order;
+        this.heap = new State[64];
+        this.queued = new FingerprintMap();
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    @Override
+    public boolean add(State state) {
+        State match = queued.put(state.getFingerprint(), state);
+        if (match == null) {
+            push(state);
+            return true;
+        }
+        if (!match.getPacked().equals(state.getPacked())) {     //Fingerprint collision, queue it unindexed
+            queued.put(match.getFingerprint(), match);
+            push(state);
+            return true;
+        }
+        if (state.getGn() < match.getGn()) {                    //Shorter path to the same world
+            int slot = match.openSlot;
+            match.openSlot = -1;
+            heap[slot] = state;
+            state.openSlot = slot;
+            siftUp(slot);
+            siftDown(state.openSlot);
+            return true;
+        }
+        queued.put(match.getFingerprint(), match);
+        return false;
+    }
+
+    @Override
+    public State poll() {
+        if (size == 0) {
+            return null;
+        }
+        State first = heap[0];
+        State indexed = queued.remove(first.getFingerprint());
+        if (indexed != first && indexed != null) {              //First was queued unindexed, keep the indexed one
+            queued.put(indexed.getFingerprint(), indexed);
+        }
+        first.openSlot = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            heap[0].openSlot = 0;
+            siftDown(0);
+        }
+        heap[size] = null;
+        return first;
+    }
+
+    @Override
+    public State find(Successor successor) {
+        State match = queued.get(successor.getFingerprint());
+        if (match == null || !match.getPacked().equals(successor.getWorld())) {
+            return null;
+        }
+        return match;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /*****************************************************
+     *                  Heap Methods                     *
+     *****************************************************/
+    private void push(State state) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = state;
+        state.openSlot = size;
+        siftUp(size++);
+    }
+
+    private void siftUp(int slot) {
+        State state = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (order.compare(state, heap[parent]) >= 0) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            heap[slot].openSlot = slot;
+            slot = parent;
+        }
+        heap[slot] = state;
+        state.openSlot = slot;
+    }
+
+    private void siftDown(int slot) {
+        State state = heap[slot];
+        int half = size / 2;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (order.compare(state, heap[child]) <= 0) {
+                break;
+            }
+            heap[slot] = heap[child];
+            heap[slot].openSlot = slot;
+            slot = child;
+        }
+        heap[slot] = state;
+        state.openSlot = slot;
+    }
+}
@@ -0,0 +1,185 @@
+package ai_final;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Java Flight Recorder events of the solver. Only FlightRecorderSupport
+ * refers to this class, by name, so it is never loaded on Java runtimes
+ * without jdk.jfr.
+ *
+ * Two events are emitted:
+ * ai_final.Solve spans a whole call to solve(), with its final counters, and
+ * ai_final.SearchProgress spans the time between two progress samples (every
+ * ResolutionEngine.getProgressInterval() expanded states), with the size of 
+ * the frontier, the best h so far, and the time spent generating successors 
+ * and checking them for duplicates during that span. Lining progress events
+ * up with GC and allocation events shows which part of a search causes them.
+ * @author Ryan Nichols
+ */
+class JfrRecorder extends FlightRecorderSupport {
+    volatile EventType solveType;           //Looked up once a recording has started
+
+    /**
+     * Looking up an event type starts the flight recorder, which takes a few
+     * hundred milliseconds, so it is only done once something else did.
+     */
+    @Override
+    boolean isRecording() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        if (solveType == null) {
+            solveType = EventType.getEventType(SolveEvent.class);
+        }
+        return solveType.isEnabled();
+    }
+
+    @Override
+    SearchListener listenerFor(SearchListener next) {
+        return new Listener(next);
+    }
+
+
+    /*****************************************************
+     *                      Events                       *
+     *****************************************************/
+    @Name("ai_final.Solve")
+    @Label("Solve")
+    @Category("AI_Final")
+    @Description("A call to ResolutionEngine.solve()")
+    static class SolveEvent extends Event {
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Solved")
+        boolean solved;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Expanded States")
+        long expanded;
+
+        @Label("Generated States")
+        long generated;
+
+        @Label("Duplicates")
+        long duplicates;
+
+        @Label("Heuristic Evaluations")
+        long heuristicEvaluations;
+
+        @Label("Peak Frontier")
+        int peakFrontier;
+
+        @Label("Closed Set Size")
+        int closedSize;
+    }
+
+    @Name("ai_final.SearchProgress")
+    @Label("Search Progress")
+    @Category("AI_Final")
+    @Description("The work done by a search since its previous progress sample")
+    static class ProgressEvent extends Event {
+        @Label("Expanded States")
+        long expanded;
+
+        @Label("Generated States")
+        long generated;
+
+        @Label("Duplicates")
+        long duplicates;
+
+        @Label("Frontier")
+        int frontier;
+
+        @Label("Best h")
+        int bestHn;
+
+        @Label("Successor Generation")
+        @Timespan
+        long successorTime;
+
+        @Label("Duplicate Checks")
+        @Timespan
+        long duplicateCheckTime;
+    }
+
+
+    /*****************************************************
+     *                     Listener                      *
+     *****************************************************/
+    /**
+     * Emits the events of one search, then passes each call on
+     */
+    static class Listener implements SearchListener {
+        SearchListener next;
+        SolveEvent solve = new SolveEvent();
+        ProgressEvent progress;             //Span since the previous sample
+        long successorNanos;                //Counters at the previous sample
+        long duplicateCheckNanos;
+
+        Listener(SearchListener next) {
+            this.next = next;
+        }
+
+        @Override
+        public void searchStarted(ResolutionEngine engine) {
+            solve.begin();
+            progress = new ProgressEvent();
+            progress.begin();
+            if (next != null) {
+                next.searchStarted(engine);
+            }
+        }
+
+        @Override
+        public void searchProgress(ResolutionEngine engine, SearchStatistics statistics) {
+            progress.end();
+            if (progress.shouldCommit()) {
+                progress.expanded = statistics.getExpanded();
+                progress.generated = statistics.getGenerated();
+                progress.duplicates = statistics.getDuplicates();
+                progress.frontier = statistics.getFrontier();
+                progress.bestHn = statistics.getBestHn();
+                progress.successorTime = statistics.getSuccessorNanos() - successorNanos;
+                progress.duplicateCheckTime = statistics.getDuplicateCheckNanos() - duplicateCheckNanos;
+                progress.commit();
+            }
+            successorNanos = statistics.getSuccessorNanos();
+            duplicateCheckNanos = statistics.getDuplicateCheckNanos();
+            progress = new ProgressEvent();
+            progress.begin();
+            if (next != null) {
+                next.searchProgress(engine, statistics);
+            }
+        }
+
+        @Override
+        public void searchFinished(ResolutionEngine engine, SearchStatistics statistics, boolean solved) {
+            solve.end();
+            if (solve.shouldCommit()) {
+                solve.strategy = engine.getStrategy().toString();
+                solve.solved = solved;
+                solve.outcome = String.valueOf(engine.getOutcome());
+                solve.expanded = statistics.getExpanded();
+                solve.generated = statistics.getGenerated();
+                solve.duplicates = statistics.getDuplicates();
+                solve.heuristicEvaluations = statistics.getHeuristicEvaluations();
+                solve.peakFrontier = statistics.getPeakFrontier();
+                solve.closedSize = statistics.getClosedSize();
+                solve.commit();
+            }
+            if (next != null) {
+                next.searchFinished(engine, statistics, solved);
+            }
+        }
+    }
+}
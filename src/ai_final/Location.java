@@ -23,8 +23,20 @@ public class Location {
         this.name = name;
     }    
     
-    public boolean equals(Location other) {
-        return name.equals(other.getName());
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Location)) {
+            return false;
+        }
+        return name.equals(((Location) o).getName());
+    }
+    
+    @Override
+    public int hashCode() {
+        return name.hashCode();
     }
     
     public String toString() {
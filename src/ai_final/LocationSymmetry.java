@@ -0,0 +1,48 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * This class finds the locations that are interchangeable during a search: the
+ * locations that are empty in the goal world. Putting a block down on any one
+ * of them that is currently clear leads to the same situation, up to renaming
+ * the locations, since none of them differs from the others either now or in
+ * the goal. Only one of them needs to be tried, which SuccessorIterator does
+ * when given a LocationSymmetry.
+ *
+ * Blocks are never interchangeable in this way, since a goal world gives
+ * every block its own position.
+ * @author Ryan Nichols
+ */
+public class LocationSymmetry {
+    HashSet<Location> interchangeable;  //Locations that are empty in the goal world
+
+    /**
+     * @param goalWorld
+     */
+    public LocationSymmetry(ArrayList<Predicate> goalWorld) {
+        this.interchangeable = new HashSet<>();
+        for (Predicate p : goalWorld) {
+            if (p.getName().equals(Predicate.CLEARLOC) && p.getLocation() != null) {
+                interchangeable.add(p.getLocation());
+            }
+        }
+    }
+
+    /**
+     * @param location
+     * @return true if the location is empty in the goal world, so it can
+     * stand for every other such location that is clear
+     */
+    public boolean isInterchangeable(Location location) {
+        return interchangeable.contains(location);
+    }
+
+    /**
+     * @return the number of interchangeable locations
+     */
+    public int size() {
+        return interchangeable.size();
+    }
+}
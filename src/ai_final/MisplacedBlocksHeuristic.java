@@ -0,0 +1,148 @@
+package ai_final;
+
+/**
+ * This heuristic counts the blocks that are not yet on their final tower.
+ * A block is in its final position if it sits on the same thing as in the
+ * goal world, and that thing is a location or a block that is also in its
+ * final position. Every block that is not in its final position has to be
+ * picked up and put down at least once (2 actions), since either it or a
+ * block below it is in the wrong place, and a held block has to be put down
+ * (1 action). The estimate is therefore admissible.
+ * 
+ * An action only changes the support of the block it moves, which has nothing
+ * on it before and after, and whether a block is in its final position only
+ * depends on the blocks below it. The estimate of a child world is therefore
+ * that of its parent, with the part due to the moved block worked out again,
+ * which only walks down the stack the block left and the stack it joined.
+ * @author Ryan Nichols
+ */
+public class MisplacedBlocksHeuristic implements Heuristic {
+    PackedWorld goal;   //The goal world, null until bound to a goal
+
+    public MisplacedBlocksHeuristic() {
+    }
+
+    @Override
+    public Heuristic forGoal(PackedWorld goal) {
+        MisplacedBlocksHeuristic heuristic = new MisplacedBlocksHeuristic();
+        heuristic.goal = goal;
+        return heuristic;
+    }
+
+    @Override
+    public int estimate(PackedWorld world) {
+        boolean[] finalPosition = findFinalPositions(world);
+        int moves = 0;
+        for (int b = 0; b < finalPosition.length; b++) {
+            if (world.getSupport(b) == PackedWorld.HELD) {
+                moves += 1;
+            }
+            else if (!finalPosition[b]) {
+                moves += 2;
+            }
+        }
+        return moves;
+    }
+
+    @Override
+    public int estimate(PackedWorld world, int parentEstimate, Changes changes) {
+        Domain domain = world.getDomain();
+        int block = -1;
+        short oldSupport = 0;       //What the moved block sat on in the parent world
+        for (Predicate p : changes.getRemoved()) {
+            switch (p.getName()) {
+                case Predicate.ON:
+                    block = domain.indexOf(p.getArgument1());
+                    oldSupport = (short) domain.indexOf(p.getArgument2());
+                    break;
+                case Predicate.ONTABLE:
+                    block = domain.indexOf(p.getArgument1());
+                    oldSupport = PackedWorld.onLocation(domain.indexOf(p.getLocation()));
+                    break;
+                case Predicate.HOLDING:
+                    block = domain.indexOf(p.getArgument1());
+                    oldSupport = PackedWorld.HELD;
+                    break;
+            }
+        }
+        if (block < 0) {                                    //No block moved
+            return estimate(world);
+        }
+        //The stack below the old support is the same in both worlds
+        return parentEstimate - cost(block, oldSupport, world) + cost(block, world.getSupport(block), world);
+    }
+
+    @Override
+    public boolean isAdmissible() {
+        return true;
+    }
+
+    /**
+     * Works out the part of the estimate due to a block with nothing on it
+     * @param block index of the block
+     * @param support what the block sits on (see PackedWorld)
+     * @param world world holding the blocks below the block
+     * @return 1 if the block is held, 0 if it is in its final position, and
+     * 2 otherwise
+     */
+    protected int cost(int block, short support, PackedWorld world) {
+        if (support == PackedWorld.HELD) {
+            return 1;
+        }
+        return isInFinalPosition(block, support, world) ? 0 : 2;
+    }
+
+    /**
+     * Checks if a block would be in its final position on the given support,
+     * by walking down the stack below it
+     * @param block index of the block
+     * @param support what the block sits on (see PackedWorld)
+     * @param world world holding the blocks below the block
+     * @return true if the block and every block below it sit on the same 
+     * thing as in the goal world
+     */
+    protected boolean isInFinalPosition(int block, short support, PackedWorld world) {
+        if (support != goal.getSupport(block)) {
+            return false;
+        }
+        for (int b = support; b >= 0; b = world.getSupport(b)) {
+            if (world.getSupport(b) != goal.getSupport(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Works out which blocks of a world are in their final position
+     * @param world
+     * @return true for each block that is in its final position
+     */
+    protected boolean[] findFinalPositions(PackedWorld world) {
+        int blockCount = world.getDomain().getBlockCount();
+        byte[] known = new byte[blockCount];    //0: unknown, 1: final, 2: not final
+        boolean[] finalPosition = new boolean[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            finalPosition[b] = isInFinalPosition(b, world, known);
+        }
+        return finalPosition;
+    }
+
+    /**
+     * Helper method for findFinalPositions. Should not be called from anywhere
+     * else
+     * @param block index of the block to check
+     * @param world
+     * @param known results so far, filled in by this method
+     * @return true if the block is in its final position
+     */
+    private boolean isInFinalPosition(int block, PackedWorld world, byte[] known) {
+        if (known[block] == 0) {
+            short support = world.getSupport(block);
+            boolean isFinal = support == goal.getSupport(block)
+                    && (support < 0 || isInFinalPosition(support, world, known));  //On a location, or on a block in its final position
+            known[block] = (byte) (isFinal ? 1 : 2);
+        }
+        return known[block] == 1;
+    }
+}
@@ -0,0 +1,147 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This class is a macro action that moves a clear block straight to another
+ * clear block or location: a PICKUP or UNSTACK followed by a PUTDOWN or STACK.
+ * Searching with moves instead of single actions halves the depth of the
+ * search and never creates the states where a block is held in between.
+ *
+ * Like the PUTDOWN or STACK it ends with, a move has the moved block as 
+ * block1 and its destination as location or block2. Its cost is 2, the 
+ * number of single actions it stands for, and toActions() gives them back.
+ * @author Ryan Nichols
+ */
+public class Move extends Action {
+    Action lift;        //PICKUP or UNSTACK of the block
+    Action place;       //PUTDOWN or STACK of the same block
+    Changes liftChanges;    //Changes of the lift, null until needed
+
+    /**
+     * @param lift PICKUP or UNSTACK of a block
+     * @param place PUTDOWN or STACK of the same block
+     */
+    public Move(Action lift, Action place) {
+        super(MOVE, place.getBlock1(), place.getBlock2());
+        this.location = place.getLocation();
+        this.lift = lift;
+        this.place = place;
+    }
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * The changes of the lift followed by those of the place, without the 
+     * HOLDING and CLEAR predicates of the moved block, which the place adds 
+     * back as soon as the lift removes them
+     * @return the changes of the move
+     */
+    @Override
+    public Changes getChanges() {
+        if (liftChanges == null) {
+            liftChanges = lift.getChanges();
+        }
+        Changes placeChanges = place.getChanges();
+        ArrayList<Predicate> removed = new ArrayList<>(2);
+        ArrayList<Predicate> added = new ArrayList<>(2);
+        addAllButHand(liftChanges.getRemoved(), removed);
+        addAllButHand(placeChanges.getRemoved(), removed);
+        addAllButHand(liftChanges.getAdded(), added);
+        addAllButHand(placeChanges.getAdded(), added);
+        return new Changes(removed, added);
+    }
+
+    /**
+     * Same as getChanges(), but made of the predicates of a domain, looked up
+     * by index, so no predicate is created
+     * @param domain the domain of the world the move applies to
+     * @param block index of the moved block
+     * @param from index of the block or location the block is lifted from
+     * @param to index of the block or location the block is placed on
+     * @return the changes of the move
+     */
+    public Changes getChanges(Domain domain, int block, int from, int to) {
+        ArrayList<Predicate> removed = new ArrayList<>(2);
+        ArrayList<Predicate> added = new ArrayList<>(2);
+        boolean pickup = lift.getName().equals(PICKUP);
+        boolean putdown = place.getName().equals(PUTDOWN);
+        removed.add(pickup ? domain.onTable(block, from) : domain.on(block, from));
+        removed.add(putdown ? domain.clearLoc(to) : domain.clear(to));
+        added.add(pickup ? domain.clearLoc(from) : domain.clear(from));
+        added.add(putdown ? domain.onTable(block, to) : domain.on(block, to));
+        return new Changes(removed, added);
+    }
+
+    /**
+     * @return the move that puts the block back where it came from
+     */
+    @Override
+    public Action inverse() {
+        return new Move(place.inverse(), lift.inverse());
+    }
+
+    /**
+     * @return the lift and the place
+     */
+    @Override
+    public ArrayList<Action> toActions() {
+        ArrayList<Action> actions = new ArrayList<>();
+        actions.add(lift);
+        actions.add(place);
+        return actions;
+    }
+
+    @Override
+    public int getCost() {
+        return 2;
+    }
+
+
+    /**
+     * Copies predicates, leaving out the HOLDING and CLEAR predicates of the
+     * moved block
+     * @param from
+     * @param to 
+     */
+    private void addAllButHand(ArrayList<Predicate> from, ArrayList<Predicate> to) {
+        for (Predicate p : from) {
+            boolean hand = p.getName().equals(Predicate.HOLDING) || p.getName().equals(Predicate.CLEAR);
+            if (!hand || !block1.equals(p.getArgument1())) {
+                to.add(p);
+            }
+        }
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public Action getLift() {
+        return lift;
+    }
+
+    public Action getPlace() {
+        return place;
+    }
+
+
+    /****************************************************
+    *                  Utility Methods                  *
+    *****************************************************/
+    /**
+     * @return for example MOVE(A, L1, B) to move A from L1 onto B
+     */
+    @Override
+    public String toString() {
+        String from = lift.getLocation() != null ? lift.getLocation().getName() : lift.getBlock2().getName();
+        String to = place.getLocation() != null ? place.getLocation().getName() : place.getBlock2().getName();
+        return name + "(" + block1.getName() + ", " + from + ", " + to + ")";
+    }
+
+    @Override
+    public boolean equals(Action other) {
+        return other instanceof Move && lift.equals(((Move) other).lift) && place.equals(((Move) other).place);
+    }
+}
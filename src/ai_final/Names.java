@@ -0,0 +1,55 @@
+package ai_final;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class keeps a single, canonical instance of every distinct block and
+ * location name, so the worlds built by the parsers share their blocks and 
+ * locations. Predicates are not kept here: each problem's Domain creates its
+ * own, with ids, and they are released with it. This table only grows by one
+ * small Block or Location per distinct name ever read.
+ * 
+ * There is only one table, shared by every solver. It is safe to use from 
+ * several threads at once.
+ * @author Ryan Nichols
+ */
+public class Names {
+    static ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+    static ConcurrentHashMap<String, Location> locations = new ConcurrentHashMap<>();
+
+    private Names() {
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Returns the canonical block with the given name, creating it if needed
+     * @param name
+     * @return the block
+     */
+    public static Block block(String name) {
+        Block block = blocks.get(name);
+        if (block == null) {
+            blocks.putIfAbsent(name, new Block(name));
+            block = blocks.get(name);
+        }
+        return block;
+    }
+
+    /**
+     * Returns the canonical location with the given name, creating it if 
+     * needed
+     * @param name
+     * @return the location
+     */
+    public static Location location(String name) {
+        Location location = locations.get(name);
+        if (location == null) {
+            locations.putIfAbsent(name, new Location(name));
+            location = locations.get(name);
+        }
+        return location;
+    }
+}
@@ -0,0 +1,41 @@
+package ai_final;
+
+/**
+ * This interface defines the list of states the solver has not evaluated 
+ * yet (the open list). A world is only queued once: adding a world that is 
+ * already queued either replaces the queued state, if the new state reached
+ * the world with fewer actions, or is ignored.
+ * 
+ * SearchStrategy.openList() picks the implementation suited to a strategy:
+ * BucketOpenList when states are ordered by a small integer, and 
+ * IndexedOpenList otherwise.
+ * @author Ryan Nichols
+ */
+public interface OpenList {
+    /**
+     * Adds a state, unless its world is already queued with as few actions.
+     * The state must hold its packed world and fingerprint.
+     * @param state
+     * @return true if the state was added or replaced the queued state of
+     * its world; false if it was ignored
+     */
+    boolean add(State state);
+    
+    /**
+     * Removes the next state to evaluate
+     * @return the state, or null if the list is empty
+     */
+    State poll();
+    
+    /**
+     * Finds the queued state of the world a successor leads to. The world is
+     * only built if a queued state has the same fingerprint.
+     * @param successor
+     * @return the queued state, or null if the world is not queued
+     */
+    State find(Successor successor);
+    
+    int size();
+    
+    boolean isEmpty();
+}
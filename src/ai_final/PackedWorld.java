@@ -0,0 +1,296 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class describes a world as a small array of numbers instead of a list
+ * of predicates. A world of blocks is completely described by what each block
+ * sits on and what the hand is holding, so the array has one slot per block
+ * (the support of that block) plus one slot for the hand. The CLEAR and
+ * CLEARLOC predicates are not stored, as they can be worked out from the
+ * supports.
+ *
+ * Support slot values:
+ * 0 or more: the index of the block this block sits on
+ * -1 - l: this block sits directly on location l
+ * HELD: this block is being held
+ * ABSENT: not yet filled in, only while a world is being built
+ *
+ * Hand slot values:
+ * 0 or more: the index of the held block
+ * EMPTY: nothing is being held
+ *
+ * Block and location indices are given by a Domain.
+ * @author Ryan Nichols
+ */
+public class PackedWorld {
+    Domain domain;
+    short[] slots;      //Support of each block, followed by the hand
+    int hash;           //Cached hash code, 0 if not yet computed
+
+    //Slot constants
+    final public static short HELD = Short.MIN_VALUE;
+    final public static short ABSENT = Short.MIN_VALUE + 1;
+    final public static short EMPTY = -1;
+
+    /**
+     * Creates a world in which every block is ABSENT and the hand is empty. 
+     * The supports must be filled in before the world is used.
+     * @param domain
+     */
+    public PackedWorld(Domain domain) {
+        this.domain = domain;
+        this.slots = new short[domain.getBlockCount() + 1];
+        Arrays.fill(this.slots, ABSENT);
+        this.slots[domain.getBlockCount()] = EMPTY;
+    }
+
+    /**
+     * @param domain
+     * @param slots support of each block followed by the hand
+     */
+    public PackedWorld(Domain domain, short[] slots) {
+        this.domain = domain;
+        this.slots = slots;
+    }
+
+
+    /*****************************************************
+     *                    Conversion                     *
+     *****************************************************/
+    /**
+     * Packs a list of predicates describing a world
+     * @param domain the domain containing every block and location in the world
+     * @param world
+     * @return the packed form of the world
+     * @throws IllegalArgumentException if a block of the domain is not placed
+     * in the world (see places())
+     */
+    public static PackedWorld pack(Domain domain, ArrayList<Predicate> world) {
+        PackedWorld packed = new PackedWorld(domain);
+        for (Predicate p : world) {
+            switch (p.getName()) {
+                case Predicate.ON:          //Block on block
+                    packed.slots[domain.indexOf(p.getArgument1())] = (short) domain.indexOf(p.getArgument2());
+                    break;
+                case Predicate.ONTABLE:     //Block on location
+                    packed.slots[domain.indexOf(p.getArgument1())] = onLocation(domain.indexOf(p.getLocation()));
+                    break;
+                case Predicate.HOLDING:     //Block in hand
+                    packed.slots[domain.indexOf(p.getArgument1())] = HELD;
+                    packed.slots[domain.getBlockCount()] = (short) domain.indexOf(p.getArgument1());
+                    break;
+                default:                    //CLEAR and CLEARLOC are implied by the supports
+                    break;
+            }
+        }
+        for (int b = 0; b < domain.getBlockCount(); b++) {
+            if (packed.slots[b] == ABSENT) {
+                throw new IllegalArgumentException("Block " + domain.getBlock(b).getName() + " is not placed in the world");
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * @param domain
+     * @param world
+     * @return true if every block of the domain sits on something or is held
+     * in the world, so that it can be packed. Worlds that do not have the 
+     * same blocks cannot both be packed with the domain of the two
+     */
+    public static boolean places(Domain domain, ArrayList<Predicate> world) {
+        boolean[] placed = new boolean[domain.getBlockCount()];
+        int count = 0;
+        for (Predicate p : world) {
+            switch (p.getName()) {
+                case Predicate.ON:
+                case Predicate.ONTABLE:
+                case Predicate.HOLDING:
+                    int b = domain.indexOf(p.getArgument1());
+                    if (!placed[b]) {
+                        placed[b] = true;
+                        count++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return count == domain.getBlockCount();
+    }
+
+    /**
+     * Converts this world back to a list of predicates. The predicates of each
+     * location are listed from the bottom of the stack to the top, followed by
+     * the held block if there is one. The predicates are those of the domain.
+     * @return the world as a list of predicates
+     */
+    public ArrayList<Predicate> unpack() {
+        ArrayList<Predicate> world = new ArrayList<>();
+        int blockCount = domain.getBlockCount();
+        int[] above = aboveBlocks();
+        int[] onLocation = new int[domain.getLocationCount()];
+        Arrays.fill(onLocation, -1);
+        for (int b = 0; b < blockCount; b++) {
+            if (slots[b] < 0 && slots[b] != HELD) {
+                onLocation[locationOf(slots[b])] = b;
+            }
+        }
+
+        for (int l = 0; l < onLocation.length; l++) {
+            int b = onLocation[l];
+            if (b < 0) {                                    //Nothing on this location
+                world.add(domain.clearLoc(l));
+                continue;
+            }
+            world.add(domain.onTable(b, l));
+            while (above[b] >= 0) {                         //Climb the stack
+                world.add(domain.on(above[b], b));
+                b = above[b];
+            }
+            world.add(domain.clear(b));
+        }
+        if (getHeld() != EMPTY) {
+            world.add(domain.holding(getHeld()));
+        }
+        return world;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Returns a new world obtained by applying the given action to this world.
+     * Like Action.applyAction, this does not check that the action is valid.
+     * @param action
+     * @return the modified world
+     */
+    public PackedWorld apply(Action action) {
+        short[] modified = slots.clone();
+        int hand = domain.getBlockCount();
+        int block = domain.indexOf(action.getBlock1());
+
+        switch (action.getName()) {
+            case Action.PICKUP:
+            case Action.UNSTACK:
+                modified[block] = HELD;
+                modified[hand] = (short) block;
+                break;
+            case Action.PUTDOWN:
+                modified[block] = onLocation(domain.indexOf(action.getLocation()));
+                modified[hand] = EMPTY;
+                break;
+            case Action.STACK:
+                modified[block] = (short) domain.indexOf(action.getBlock2());
+                modified[hand] = EMPTY;
+                break;
+            case Action.MOVE:                   //The hand is empty before and after
+                modified[block] = action.getBlock2() != null
+                        ? (short) domain.indexOf(action.getBlock2())
+                        : onLocation(domain.indexOf(action.getLocation()));
+                break;
+            case Action.NOOP:
+                break;
+        }
+        return new PackedWorld(domain, modified);
+    }
+
+    /**
+     * Works out which block, if any, sits directly on each block
+     * @return the index of the block above each block, or -1 if it is clear
+     */
+    public int[] aboveBlocks() {
+        int blockCount = domain.getBlockCount();
+        int[] above = new int[blockCount];
+        Arrays.fill(above, -1);
+        for (int b = 0; b < blockCount; b++) {
+            if (slots[b] >= 0) {
+                above[slots[b]] = b;
+            }
+        }
+        return above;
+    }
+
+    /**
+     * @param block index of a block
+     * @return true if nothing sits on the block and it is not being held
+     */
+    public boolean isClear(int block) {
+        if (slots[block] == HELD) {
+            return false;
+        }
+        for (int b = 0; b < domain.getBlockCount(); b++) {
+            if (slots[b] == block) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a location index to the support slot value for a block sitting
+     * on that location
+     * @param location
+     * @return the support slot value
+     */
+    public static short onLocation(int location) {
+        return (short) (-1 - location);
+    }
+
+    /**
+     * Converts a support slot value for a block sitting on a location back to
+     * the index of the location
+     * @param support
+     * @return the index of the location
+     */
+    public static int locationOf(short support) {
+        return -1 - support;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public Domain getDomain() {
+        return domain;
+    }
+
+    public short[] getSlots() {
+        return slots;
+    }
+
+    public short getSupport(int block) {
+        return slots[block];
+    }
+
+    public short getHeld() {
+        return slots[domain.getBlockCount()];
+    }
+
+
+    /****************************************************
+    *                  Utility Methods                  *
+    *****************************************************/
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PackedWorld)) {
+            return false;
+        }
+        return Arrays.equals(slots, ((PackedWorld) o).slots);
+    }
+
+    @Override
+    public int hashCode() {
+        if (hash == 0) {
+            hash = Arrays.hashCode(slots);
+        }
+        return hash;
+    }
+
+    public String toString() {
+        return Arrays.toString(slots);
+    }
+}
@@ -0,0 +1,452 @@
+package ai_final;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class runs a best first search on several threads at once (hash 
+ * distributed A*). Every world is owned by one worker thread, chosen from its
+ * fingerprint, and only the owner keeps it in its queue of unevaluated states
+ * and its set of evaluated states, so the workers never share those 
+ * structures. When a worker generates a state owned by another worker, it 
+ * sends it to that worker through a lock free queue. Each worker's queue is 
+ * the open list of the search strategy (see setStrategy()), so states are 
+ * evaluated in the same order as ResolutionEngine.solve() within a worker.
+ *
+ * With SearchStrategy.GREEDY, the search stops as soon as any worker 
+ * generates the goal world. With ASTAR and WEIGHTED_ASTAR, the first path a
+ * worker finds may not be the shortest, since the other workers are still 
+ * evaluating states with a lower f. The search keeps the shortest path found
+ * so far and goes on, throwing away every state that cannot lead to a path
+ * short enough to beat it, and evaluating a world again when it is reached 
+ * with fewer actions. Once no states are left, the path is the shortest 
+ * (ASTAR) or at most w times longer than the shortest (WEIGHTED_ASTAR), if 
+ * the heuristic is admissible.
+ *
+ * The search also stops once there are no states left anywhere: a shared 
+ * counter holds the number of states that have been generated but not yet 
+ * evaluated or thrown away, and it can only reach zero once every queue is 
+ * empty and no worker is still evaluating a state.
+ * It also stops when it is cancelled, when the thread that called solve() is
+ * interrupted, or when the StopCondition, if set, says so. While it waits for
+ * the workers, the thread that called solve() adds up their counters and 
+ * checks the stop condition every CHECK_MILLIS milliseconds. solve() always
+ * waits for the workers to finish.
+ *
+ * Use ResolutionEngine.solveParallel() rather than this class directly.
+ * @author Ryan Nichols
+ */
+public class ParallelSearch {
+    Heuristic heuristic;            //Bound to the goal world
+    Zobrist zobrist;
+    PackedWorld goal;
+    long goalFingerprint;
+    LocationSymmetry symmetry;      //Interchangeable locations, null to try them all
+    boolean macroMoves;             //True to search with Moves instead of single actions
+    SearchStrategy strategy = SearchStrategy.GREEDY;  //Order of each worker's queue
+    double weight = 1.0;            //Weight of h, for WEIGHTED_ASTAR
+    Worker[] workers;
+    AtomicLong pending;             //States generated but not yet evaluated or thrown away
+    volatile State finalState;      //The goal state, once found; the shortest found so far unless GREEDY
+    volatile int bound = Integer.MAX_VALUE;    //Length of finalState's path, when not GREEDY
+    volatile Throwable failure;     //Error thrown by a worker, if any
+    volatile SolveResult.Outcome stopReason;   //Why the search was stopped early, null if it was not
+    StopCondition stopCondition;    //Decides when to give up, null to search until done
+    SearchStatistics statistics = new SearchStatistics();  //Sum of the workers' counters
+    SolveResult.Outcome outcome;    //How the last call to solve() ended, null before the first
+
+    final static long CHECK_MILLIS = 10;    //Time between checks of the stop condition
+
+    /**
+     * @param heuristic heuristic for the goal world
+     * @param zobrist
+     * @param goal packed goal world
+     * @param goalFingerprint fingerprint of the goal world
+     * @param threadCount number of worker threads, at least 1
+     * @throws IllegalArgumentException if threadCount is less than 1
+     */
+    public ParallelSearch(Heuristic heuristic, Zobrist zobrist, PackedWorld goal, long goalFingerprint, int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("ParallelSearch needs at least 1 thread, got " + threadCount);
+        }
+        this.heuristic = heuristic;
+        this.zobrist = zobrist;
+        this.goal = goal;
+        this.goalFingerprint = goalFingerprint;
+        this.pending = new AtomicLong();
+        this.workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Runs the search until the goal is found, there are no states left, or
+     * the search is stopped. If the calling thread is interrupted, the 
+     * search is cancelled, the workers are still waited for, and the thread
+     * is interrupted again before returning.
+     * @param initState state of the initial world, holding a packed world,
+     * its fingerprint and its distance to the goal
+     * @return the goal state, whose ancestors form the path, or null if there
+     * is no solution or the search was stopped (see getOutcome())
+     */
+    public State solve(State initState) {
+        if (initState.getFingerprint() == goalFingerprint && initState.getPacked().equals(goal)) {
+            outcome = SolveResult.Outcome.SOLVED;       //Already at the goal, the empty path is the answer
+            return initState;
+        }
+        for (Worker worker : workers) {
+            worker.unevaluatedStates = strategy.openList(weight);
+        }
+        send(initState);
+
+        Thread[] threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            threads[i] = new Thread(workers[i], "ParallelSearch-" + i);
+            threads[i].start();
+        }
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join(CHECK_MILLIS);
+                } catch (InterruptedException e) {
+                    interrupted = true;                 //Tell the workers to stop, then keep waiting for them
+                    cancel();
+                }
+                updateStatistics();
+                if (stopCondition != null && !isFinished()) {
+                    SolveResult.Outcome reason = stopCondition.check(statistics, keptStates());
+                    if (reason != null) {
+                        stop(reason);
+                    }
+                }
+            }
+        }
+        updateStatistics();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (finalState != null && (isGreedy() || stopReason == null)) {   //Found before the workers saw the stop, or known to be short enough
+            outcome = SolveResult.Outcome.SOLVED;
+            return finalState;
+        }
+        outcome = stopReason != null ? stopReason : SolveResult.Outcome.UNSOLVABLE;
+        return null;
+    }
+
+    /**
+     * Asks the workers to stop. solve() returns null once they have, unless
+     * one of them found the goal first. Can be called from any thread.
+     */
+    public void cancel() {
+        stop(SolveResult.Outcome.CANCELLED);
+    }
+
+    /**
+     * @return true if the search was cancelled, in which case a null result
+     * from solve() does not mean that there is no solution
+     */
+    public boolean isCancelled() {
+        return stopReason == SolveResult.Outcome.CANCELLED;
+    }
+
+    /**
+     * Asks the workers to stop, keeping the first reason given
+     * @param reason
+     */
+    private synchronized void stop(SolveResult.Outcome reason) {
+        if (stopReason == null) {
+            stopReason = reason;
+        }
+    }
+
+    /**
+     * Adds up the counters the workers have published into the statistics. 
+     * The workers do not wait for this, so the sums may be slightly behind
+     * while they run
+     */
+    private void updateStatistics() {
+        long expanded = 0;
+        long generated = 0;
+        int bestHn = Integer.MAX_VALUE;
+        int frontier = 0;
+        int closed = 0;
+        for (Worker worker : workers) {
+            expanded += worker.expandedCount;
+            generated += worker.generatedCount;
+            bestHn = Math.min(bestHn, worker.bestHn);
+            frontier += worker.queuedSize;
+            closed += worker.evaluatedSize;
+        }
+        statistics.expanded = expanded;
+        statistics.generated = generated;
+        statistics.bestHn = bestHn;
+        statistics.frontier = frontier;
+        statistics.updateSizes(frontier, closed);
+    }
+
+    /**
+     * @return the number of states queued or evaluated by all workers
+     */
+    private long keptStates() {
+        long kept = 0;
+        for (Worker worker : workers) {
+            kept += worker.queuedSize + worker.evaluatedSize;
+        }
+        return kept;
+    }
+
+    /**
+     * Hands a newly generated state to the worker that owns its world
+     * @param state
+     */
+    private void send(State state) {
+        pending.incrementAndGet();                      //Counted before it can be seen, so pending never drops to 0 early
+        workers[ownerOf(state.getFingerprint())].inbox.add(state);
+    }
+
+    /**
+     * @param fingerprint
+     * @return the index of the worker that owns worlds with this fingerprint
+     */
+    private int ownerOf(long fingerprint) {
+        return (int) ((fingerprint & Long.MAX_VALUE) % workers.length);
+    }
+
+    /**
+     * @return true once the workers should stop
+     */
+    private boolean isFinished() {
+        return (finalState != null && isGreedy()) || failure != null || stopReason != null || pending.get() == 0;
+    }
+
+    /**
+     * @return true if the search stops at the first path found
+     */
+    private boolean isGreedy() {
+        return strategy == SearchStrategy.GREEDY;
+    }
+
+    /**
+     * Keeps a path found by a worker if it is shorter than the best so far
+     * @param goalState
+     */
+    private synchronized void offer(State goalState) {
+        if (goalState.getGn() < bound) {
+            finalState = goalState;
+            bound = goalState.getGn();
+        }
+    }
+
+    /**
+     * @param state
+     * @return true if the state cannot lead to a path short enough to beat 
+     * the shortest path found so far: its g + h, times the weight for 
+     * WEIGHTED_ASTAR, is not below the length of that path
+     */
+    private boolean isPruned(State state) {
+        int best = bound;
+        if (best == Integer.MAX_VALUE) {
+            return false;
+        }
+        double f = state.getGn() + state.getHn();
+        return (strategy == SearchStrategy.WEIGHTED_ASTAR ? weight * f : f) >= best;
+    }
+
+    /**
+     * @return the total number of states evaluated by all workers
+     */
+    public long getExpandedCount() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.expandedCount;
+        }
+        return total;
+    }
+
+    /**
+     * @return how the last call to solve() ended: SOLVED, UNSOLVABLE, 
+     * CANCELLED, or the outcome returned by the stop condition. null before
+     * the first call
+     */
+    public SolveResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @param stopCondition checked every CHECK_MILLIS milliseconds while the
+     * workers run, null to search until done or cancelled
+     */
+    public void setStopCondition(StopCondition stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param statistics counters to update while searching, for example 
+     * those of the engine running the search
+     */
+    public void setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @param symmetry interchangeable locations of the goal world, only one
+     * of which is tried when putting a block down. null to try them all
+     */
+    public void setSymmetry(LocationSymmetry symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    /**
+     * @param macroMoves true to search with Moves instead of single actions
+     */
+    public void setMacroMoves(boolean macroMoves) {
+        this.macroMoves = macroMoves;
+    }
+
+    /**
+     * @param strategy order in which each worker evaluates its states. 
+     * SearchStrategy.ANYTIME is not supported
+     * @param weight weight of h, only used by WEIGHTED_ASTAR
+     * @throws IllegalArgumentException if the strategy is ANYTIME
+     */
+    public void setStrategy(SearchStrategy strategy, double weight) {
+        if (strategy == SearchStrategy.ANYTIME) {
+            throw new IllegalArgumentException("ParallelSearch does not support " + strategy);
+        }
+        this.strategy = strategy;
+        this.weight = weight;
+    }
+
+
+    /*****************************************************
+     *                   Worker Thread                   *
+     *****************************************************/
+    /**
+     * One search thread, with its own queue of unevaluated states and set of
+     * evaluated states for the worlds it owns. Only the worker touches them;
+     * it publishes its counters and their sizes in volatile fields for the
+     * thread that called solve().
+     */
+    class Worker implements Runnable {
+        ConcurrentLinkedQueue<State> inbox = new ConcurrentLinkedQueue<>();  //States sent by any worker
+        OpenList unevaluatedStates;     //Open list of the strategy, created by solve()
+        ClosedSet evaluatedStates = new ClosedSet();
+        volatile long expandedCount;
+        volatile long generatedCount;
+        volatile int bestHn = Integer.MAX_VALUE;   //Lowest h of the states expanded with an empty hand
+        volatile int queuedSize;        //Size of unevaluatedStates, as last published
+        volatile int evaluatedSize;     //Size of evaluatedStates, as last published
+
+        @Override
+        public void run() {
+            try {
+                while (!isFinished()) {
+                    //Move received states to the queue, unless they need not be evaluated
+                    State received;
+                    while ((received = inbox.poll()) != null) {
+                        if (isDone(received)) {
+                            pending.decrementAndGet();
+                        }
+                        else {
+                            queue(received);
+                        }
+                    }
+
+                    State current = unevaluatedStates.poll();
+                    if (current == null) {                      //Nothing to do until another worker sends a state
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                        continue;
+                    }
+                    if (!isDone(current)) {                     //A shorter path may have been found since it was queued
+                        evaluate(current);
+                    }
+                    queuedSize = unevaluatedStates.size();
+                    evaluatedSize = evaluatedStates.size();
+                    pending.decrementAndGet();                  //Only after its children have been counted
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
+        /**
+         * @param state
+         * @return true if the state's world was already evaluated (with as 
+         * few actions, unless GREEDY), or the state cannot lead to a shorter
+         * path than the one found
+         */
+        private boolean isDone(State state) {
+            State evaluated = evaluatedStates.find(state);
+            if (evaluated != null && (isGreedy() || evaluated.getGn() <= state.getGn())) {
+                return true;
+            }
+            return isPruned(state);
+        }
+
+        /**
+         * Adds a state to the queue. A state the open list ignores, or whose
+         * queued state it replaces, is no longer pending
+         * @param state
+         */
+        private void queue(State state) {
+            int before = unevaluatedStates.size();
+            if (!unevaluatedStates.add(state) || unevaluatedStates.size() == before) {
+                pending.decrementAndGet();
+            }
+        }
+
+        /**
+         * Generates the children of a state and sends them to their owners.
+         * Unless GREEDY, a goal state is kept as a path instead
+         * @param current
+         */
+        private void evaluate(State current) {
+            if (!isGreedy() && current.getFingerprint() == goalFingerprint && current.getPacked().equals(goal)) {
+                offer(current);
+                return;
+            }
+            evaluatedStates.add(current);
+            expandedCount++;                            //Only this worker writes its counters
+            if (current.getHn() < bestHn && current.getPacked().getHeld() == PackedWorld.EMPTY) {
+                bestHn = current.getHn();
+            }
+
+            int generated = 0;
+            Iterator<Successor> successors = current.successors(zobrist, symmetry, macroMoves);
+            while (successors.hasNext()) {
+                Successor successor = successors.next();
+                generated++;
+                if (isGreedy() && successor.getFingerprint() == goalFingerprint && successor.getWorld().equals(goal)) {
+                    finalState = successor.toState(0);
+                    break;
+                }
+                State child = successor.toState(heuristic.estimate(successor.getWorld(), current.getHn(), successor.getChanges()));
+                if (!isPruned(child)) {
+                    send(child);
+                }
+            }
+            generatedCount += generated;
+            current.compact();
+        }
+    }
+}
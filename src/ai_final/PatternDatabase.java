@@ -0,0 +1,395 @@
+package ai_final;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class holds a pattern database: the exact number of actions needed to
+ * reach a goal world when only a few blocks (the pattern) are considered.
+ *
+ * In the pattern's view of a world, each pattern block sits on a location, on
+ * another pattern block, on "some other block", or is held. Every block that
+ * is not in the pattern is ignored, so every real action either moves a
+ * pattern block (and is an action in the pattern's view too) or does not
+ * change the pattern's view at all. The distance in the pattern's view is
+ * therefore never more than the real number of actions spent on pattern
+ * blocks, and the distances of several patterns with no block in common can
+ * be added together (see PatternDatabaseHeuristic).
+ *
+ * The database is built once for a goal world by a breadth first search from
+ * the goal in the pattern's view, and saved to a file: a short header (block
+ * and location names, and the pattern's view of the goal) followed by one
+ * byte per possible view. The file is memory mapped when opened, so it is not
+ * read into the Java heap and several processes using the same file share
+ * the same memory.
+ * @author Ryan Nichols
+ */
+public class PatternDatabase {
+    String[] blockNames;        //Names of the pattern blocks
+    String[] locationNames;     //Names of the locations
+    boolean hasOthers;          //True if the world has blocks that are not in the pattern
+    int[] goalView;             //Pattern's view of the goal world
+    MappedByteBuffer table;     //Distance of each view, UNREACHABLE if it cannot reach the goal
+    int tableOffset;            //Position of the first distance in the file
+
+    //File constants
+    final static int MAGIC = 0x50444231;        //"PDB1"
+    final static int UNREACHABLE = 0xFF;
+    final static Charset UTF8 = Charset.forName("UTF-8");
+
+
+    /*****************************************************
+     *                   Constructors                    *
+     *****************************************************/
+    /**
+     * Creates a pattern database with no table. Use open() or build().
+     * @param blockNames
+     * @param locationNames
+     * @param hasOthers
+     * @param goalView
+     */
+    PatternDatabase(String[] blockNames, String[] locationNames, boolean hasOthers, int[] goalView) {
+        this.blockNames = blockNames;
+        this.locationNames = locationNames;
+        this.hasOthers = hasOthers;
+        this.goalView = goalView;
+    }
+
+    /**
+     * Opens a pattern database file by memory mapping it
+     * @param file
+     * @return the pattern database
+     * @throws IOException if the file cannot be read or is not a pattern
+     * database
+     */
+    public static PatternDatabase open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a pattern database");
+            }
+            String[] blockNames = new String[buffer.getInt()];
+            for (int i = 0; i < blockNames.length; i++) {
+                blockNames[i] = readName(buffer);
+            }
+            String[] locationNames = new String[buffer.getInt()];
+            for (int i = 0; i < locationNames.length; i++) {
+                locationNames[i] = readName(buffer);
+            }
+            boolean hasOthers = buffer.get() != 0;
+            int[] goalView = new int[blockNames.length];
+            for (int i = 0; i < goalView.length; i++) {
+                goalView[i] = buffer.getInt();
+            }
+
+            PatternDatabase database = new PatternDatabase(blockNames, locationNames, hasOthers, goalView);
+            int tableLength = buffer.getInt();
+            if (tableLength != database.viewCount() || buffer.remaining() < tableLength) {
+                throw new IOException(file + " is truncated");
+            }
+            database.table = buffer;
+            database.tableOffset = buffer.position();
+            return database;
+        }
+    }
+
+    /**
+     * Builds a pattern database for a goal world and saves it to a file
+     * @param goal the packed goal world
+     * @param pattern indices of the pattern blocks in the goal's domain
+     * @param file the file to write
+     * @return the pattern database, opened from the new file
+     * @throws IOException if the file cannot be written
+     */
+    public static PatternDatabase build(PackedWorld goal, int[] pattern, File file) throws IOException {
+        Domain domain = goal.getDomain();
+        String[] blockNames = new String[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            blockNames[i] = domain.getBlock(pattern[i]).getName();
+        }
+        String[] locationNames = new String[domain.getLocationCount()];
+        for (int l = 0; l < locationNames.length; l++) {
+            locationNames[l] = domain.getLocation(l).getName();
+        }
+        PatternDatabase database = new PatternDatabase(blockNames, locationNames, pattern.length < domain.getBlockCount(), null);
+        database.goalView = database.view(goal, pattern, database.patternPositions(domain), database.locationPositions(domain));
+        byte[] distances = database.search();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(blockNames.length);
+            for (String name : blockNames) {
+                writeName(out, name);
+            }
+            out.writeInt(locationNames.length);
+            for (String name : locationNames) {
+                writeName(out, name);
+            }
+            out.writeByte(database.hasOthers ? 1 : 0);
+            for (int value : database.goalView) {
+                out.writeInt(value);
+            }
+            out.writeInt(distances.length);
+            out.write(distances);
+        }
+        return open(file);
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Looks up the distance of a pattern view
+     * @param view support value of each pattern block
+     * @return the number of actions needed to reach the goal view, or 0 if
+     * the goal view cannot be reached from it
+     */
+    public int distance(int[] view) {
+        int distance = table.get(tableOffset + encode(view)) & 0xFF;
+        return distance == UNREACHABLE ? 0 : distance;
+    }
+
+    /**
+     * Finds the pattern's view of a world
+     * @param world
+     * @param pattern index in the world's domain of each pattern block
+     * @param patternPosition position in the pattern of each block of the
+     * world's domain, or -1 for blocks that are not in the pattern
+     * @param locationPosition position in this database of each location of
+     * the world's domain
+     * @return support value of each pattern block
+     */
+    public int[] view(PackedWorld world, int[] pattern, int[] patternPosition, int[] locationPosition) {
+        int[] view = new int[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            short support = world.getSupport(pattern[i]);
+            if (support == PackedWorld.HELD) {
+                view[i] = held();
+            }
+            else if (support < 0) {                                 //On a location
+                view[i] = locationPosition[PackedWorld.locationOf(support)];
+            }
+            else if (patternPosition[support] >= 0) {               //On a pattern block
+                view[i] = onBlock(patternPosition[support]);
+            }
+            else {                                                  //On some other block
+                view[i] = other();
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Finds the position in this pattern of each block of a domain
+     * @param domain
+     * @return position of each block, or -1 for blocks not in the pattern
+     */
+    public int[] patternPositions(Domain domain) {
+        int[] positions = new int[domain.getBlockCount()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < blockNames.length; i++) {
+            int b = domain.indexOf(Names.block(blockNames[i]));
+            if (b >= 0) {
+                positions[b] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Finds the position in this database of each location of a domain
+     * @param domain
+     * @return position of each location
+     * @throws IllegalArgumentException if the domain has a location this
+     * database was not built with
+     */
+    public int[] locationPositions(Domain domain) {
+        int[] positions = new int[domain.getLocationCount()];
+        for (int l = 0; l < positions.length; l++) {
+            positions[l] = Arrays.asList(locationNames).indexOf(domain.getLocation(l).getName());
+            if (positions[l] < 0) {
+                throw new IllegalArgumentException("Pattern database has no location " + domain.getLocation(l).getName());
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Breadth first search from the goal view over every view that can reach
+     * it. Every action in the pattern's view can be undone by one action, so
+     * the distance from the goal to a view is also the distance from that view
+     * to the goal.
+     * @return the distance of every view, UNREACHABLE for views that cannot
+     * reach the goal
+     */
+    private byte[] search() {
+        byte[] distances = new byte[viewCount()];
+        Arrays.fill(distances, (byte) UNREACHABLE);
+        int[] queue = new int[distances.length];
+        int head = 0;
+        int tail = 0;
+
+        int start = encode(goalView);
+        distances[start] = 0;
+        queue[tail++] = start;
+        int[] view = new int[goalView.length];
+        ArrayList<Integer> neighbours = new ArrayList<>();
+        while (head < tail) {
+            int current = queue[head++];
+            decode(current, view);
+            neighbours.clear();
+            addNeighbours(view, neighbours);
+            for (int next : neighbours) {
+                if ((distances[next] & 0xFF) == UNREACHABLE) {
+                    distances[next] = (byte) Math.min((distances[current] & 0xFF) + 1, UNREACHABLE - 1);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Adds the encoding of every view reachable from a view with one action
+     * @param view the view, restored before returning
+     * @param neighbours list the encodings are added to
+     */
+    private void addNeighbours(int[] view, ArrayList<Integer> neighbours) {
+        int k = view.length;
+        int heldBlock = -1;
+        boolean[] covered = new boolean[k];                         //Pattern blocks with a pattern block on them
+        boolean[] locationCovered = new boolean[locationNames.length];
+        for (int i = 0; i < k; i++) {
+            if (view[i] == held()) {
+                heldBlock = i;
+            }
+            else if (view[i] < locationNames.length) {
+                locationCovered[view[i]] = true;
+            }
+            else if (view[i] < other()) {
+                covered[view[i] - locationNames.length] = true;
+            }
+        }
+
+        if (heldBlock < 0) {                                        //Pick up or unstack any uncovered pattern block
+            for (int i = 0; i < k; i++) {
+                if (!covered[i]) {
+                    int support = view[i];
+                    view[i] = held();
+                    neighbours.add(encode(view));
+                    view[i] = support;
+                }
+            }
+            return;
+        }
+
+        for (int l = 0; l < locationNames.length; l++) {            //Put down on a free location
+            if (!locationCovered[l]) {
+                view[heldBlock] = l;
+                neighbours.add(encode(view));
+            }
+        }
+        for (int j = 0; j < k; j++) {                               //Stack on an uncovered pattern block
+            if (j != heldBlock && !covered[j]) {
+                view[heldBlock] = onBlock(j);
+                neighbours.add(encode(view));
+            }
+        }
+        if (hasOthers) {                                            //Stack on some other block
+            view[heldBlock] = other();
+            neighbours.add(encode(view));
+        }
+        view[heldBlock] = held();
+    }
+
+
+    /*****************************************************
+     *                 View Encoding                     *
+     *****************************************************/
+    /**
+     * @return number of values a pattern block's support can take
+     */
+    private int base() {
+        return locationNames.length + blockNames.length + 2;
+    }
+
+    /**
+     * @return number of possible views, which is the size of the table
+     */
+    int viewCount() {
+        long count = 1;
+        for (int i = 0; i < blockNames.length; i++) {
+            count *= base();
+        }
+        if (count > Integer.MAX_VALUE - 16) {
+            throw new IllegalArgumentException("Pattern of " + blockNames.length + " blocks is too large");
+        }
+        return (int) count;
+    }
+
+    private int onBlock(int position) {
+        return locationNames.length + position;
+    }
+
+    private int other() {
+        return locationNames.length + blockNames.length;
+    }
+
+    private int held() {
+        return locationNames.length + blockNames.length + 1;
+    }
+
+    private int encode(int[] view) {
+        int index = 0;
+        for (int i = view.length - 1; i >= 0; i--) {
+            index = index * base() + view[i];
+        }
+        return index;
+    }
+
+    private void decode(int index, int[] view) {
+        for (int i = 0; i < view.length; i++) {
+            view[i] = index % base();
+            index /= base();
+        }
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        byte[] bytes = name.getBytes(UTF8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readName(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public String[] getBlockNames() {
+        return blockNames;
+    }
+
+    public String[] getLocationNames() {
+        return locationNames;
+    }
+
+    public int[] getGoalView() {
+        return goalView;
+    }
+}
@@ -0,0 +1,147 @@
+package ai_final;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This heuristic adds up the distances found in several pattern databases
+ * (see PatternDatabase) whose patterns have no block in common. Every action
+ * moves exactly one block, so it is counted by at most one of the patterns,
+ * and the sum is admissible. Blocks that are in no pattern count for nothing.
+ *
+ * The databases are built once for a goal world with build(), which saves one
+ * file per pattern, and reopened later with open(). A database only gives
+ * correct distances for the goal it was built for, so forGoal() refuses any
+ * other goal.
+ * @author Ryan Nichols
+ */
+public class PatternDatabaseHeuristic implements Heuristic {
+    PatternDatabase[] databases;
+    int[][] patterns;               //Index of each pattern block, by database. Null until bound to a goal
+    int[][] patternPositions;       //Position in the pattern of each block, by database
+    int[][] locationPositions;      //Position in the database of each location, by database
+
+    /**
+     * @param databases pattern databases with no block in common
+     */
+    public PatternDatabaseHeuristic(PatternDatabase... databases) {
+        this.databases = databases;
+    }
+
+    /**
+     * Opens pattern database files saved by build()
+     * @param files
+     * @return the heuristic using those databases
+     * @throws IOException if a file cannot be read
+     */
+    public static PatternDatabaseHeuristic open(File... files) throws IOException {
+        PatternDatabase[] databases = new PatternDatabase[files.length];
+        for (int i = 0; i < files.length; i++) {
+            databases[i] = PatternDatabase.open(files[i]);
+        }
+        return new PatternDatabaseHeuristic(databases);
+    }
+
+    /**
+     * Builds pattern databases for a goal world and saves them in a directory
+     * as pdb-0.bin, pdb-1.bin, ... The blocks are split into patterns of up to
+     * patternSize blocks, taking the goal towers from the bottom up so that
+     * blocks that end up near each other are in the same pattern.
+     * @param goal the packed goal world
+     * @param patternSize maximum number of blocks in a pattern. The size of a
+     * database grows very quickly with it: 6 blocks and 4 locations take 3 MB
+     * @param directory
+     * @return the heuristic using the new databases
+     * @throws IOException if a file cannot be written
+     */
+    public static PatternDatabaseHeuristic build(PackedWorld goal, int patternSize, File directory) throws IOException {
+        //Order the blocks tower by tower, bottom up
+        Domain domain = goal.getDomain();
+        int[] above = goal.aboveBlocks();
+        ArrayList<Integer> order = new ArrayList<>();
+        for (int l = 0; l < domain.getLocationCount(); l++) {
+            for (int b = 0; b < domain.getBlockCount(); b++) {
+                if (goal.getSupport(b) == PackedWorld.onLocation(l)) {
+                    for (int block = b; block >= 0; block = above[block]) {
+                        order.add(block);
+                    }
+                }
+            }
+        }
+        for (int b = 0; b < domain.getBlockCount(); b++) {         //Held or otherwise missed
+            if (!order.contains(b)) {
+                order.add(b);
+            }
+        }
+
+        PatternDatabase[] databases = new PatternDatabase[(order.size() + patternSize - 1) / patternSize];
+        for (int i = 0; i < databases.length; i++) {
+            int from = i * patternSize;
+            int[] pattern = new int[Math.min(patternSize, order.size() - from)];
+            for (int j = 0; j < pattern.length; j++) {
+                pattern[j] = order.get(from + j);
+            }
+            databases[i] = PatternDatabase.build(goal, pattern, new File(directory, "pdb-" + i + ".bin"));
+        }
+        return new PatternDatabaseHeuristic(databases);
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    @Override
+    public Heuristic forGoal(PackedWorld goal) {
+        Domain domain = goal.getDomain();
+        PatternDatabaseHeuristic heuristic = new PatternDatabaseHeuristic(databases);
+        heuristic.patterns = new int[databases.length][];
+        heuristic.patternPositions = new int[databases.length][];
+        heuristic.locationPositions = new int[databases.length][];
+
+        boolean[] used = new boolean[domain.getBlockCount()];
+        for (int i = 0; i < databases.length; i++) {
+            String[] names = databases[i].getBlockNames();
+            int[] pattern = new int[names.length];
+            for (int j = 0; j < names.length; j++) {
+                pattern[j] = domain.indexOf(Names.block(names[j]));
+                if (pattern[j] < 0) {
+                    throw new IllegalArgumentException("Pattern database has unknown block " + names[j]);
+                }
+                if (used[pattern[j]]) {
+                    throw new IllegalArgumentException("Block " + names[j] + " is in more than one pattern");
+                }
+                used[pattern[j]] = true;
+            }
+            heuristic.patterns[i] = pattern;
+            heuristic.patternPositions[i] = databases[i].patternPositions(domain);
+            heuristic.locationPositions[i] = databases[i].locationPositions(domain);
+
+            int[] goalView = databases[i].view(goal, pattern, heuristic.patternPositions[i], heuristic.locationPositions[i]);
+            if (!Arrays.equals(goalView, databases[i].getGoalView())) {
+                throw new IllegalArgumentException("Pattern database was built for a different goal");
+            }
+        }
+        return heuristic;
+    }
+
+    @Override
+    public int estimate(PackedWorld world) {
+        int moves = 0;
+        for (int i = 0; i < databases.length; i++) {
+            moves += databases[i].distance(databases[i].view(world, patterns[i], patternPositions[i], locationPositions[i]));
+        }
+        return moves;
+    }
+
+    @Override
+    public int estimate(PackedWorld world, int parentEstimate, Changes changes) {
+        return estimate(world);
+    }
+
+    @Override
+    public boolean isAdmissible() {
+        return true;
+    }
+}
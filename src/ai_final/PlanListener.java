@@ -0,0 +1,22 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This interface receives the paths found by an anytime search
+ * (SearchStrategy.ANYTIME) as soon as they are found. Each path is shorter
+ * than the one before it.
+ * @author Ryan Nichols
+ */
+public interface PlanListener {
+    /**
+     * Called every time the search finds a shorter path
+     * @param plan list of states from the initial world to the goal world,
+     * as returned by ResolutionEngine.solve()
+     * @param length number of actions in the path
+     * @param weight weight of the heuristic when the path was found. The path
+     * is at most this many times longer than the shortest path. Infinite for
+     * the first path, which is found with SearchStrategy.GREEDY
+     */
+    void planFound(ArrayList<State> plan, int length, double weight);
+}
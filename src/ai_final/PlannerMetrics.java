@@ -0,0 +1,320 @@
+package ai_final;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class adds up the counters of every search it listens to (see 
+ * SearchListener) and exposes them as a JMX MBean, so a running solver can be
+ * watched with any JMX client (jconsole, a metrics scraper, ...). It keeps
+ * totals over all searches, the counters of the last search to finish, and 
+ * the largest frontier and longest search seen, which point to pathological
+ * problems. While searches run, it also shows their counters as of their 
+ * last progress report (see ResolutionEngine.setProgressInterval()), added 
+ * up over every running search.
+ *
+ * Example:
+ * <pre>
+ * PlannerMetrics metrics = PlannerMetrics.register();
+ * engine.setSearchListener(metrics);
+ * </pre>
+ * One instance can listen to engines running on several threads at once.
+ * @author Ryan Nichols
+ */
+public class PlannerMetrics implements PlannerMetricsMBean, SearchListener {
+    final public static String OBJECT_NAME = "ai_final:type=PlannerMetrics";
+
+    static PlannerMetrics registered;   //The instance registered with the platform MBean server, if any
+
+    long searches;
+    long solvedSearches;
+    long budgetExceededSearches;
+    long cancelledSearches;
+    long failedSearches;
+    int activeSearches;
+    long totalExpanded;
+    long totalGenerated;
+    long totalDuplicates;
+    long totalHeuristicEvaluations;
+    long totalNanos;
+    int maxPeakFrontier;
+    long maxNanos;
+    SearchStatistics last = new SearchStatistics();    //Counters of the last search to finish
+    IdentityHashMap<ResolutionEngine, SearchStatistics> running = new IdentityHashMap<>();  //Counters of each running search at its last progress report
+
+    public PlannerMetrics() {
+    }
+
+    /**
+     * Returns the instance registered with the platform MBean server under 
+     * OBJECT_NAME, registering a new one the first time
+     * @return the registered instance
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static synchronized PlannerMetrics register() {
+        if (registered == null) {
+            PlannerMetrics metrics = new PlannerMetrics();
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                server.registerMBean(metrics, new ObjectName(OBJECT_NAME));
+            } catch (InstanceAlreadyExistsException e) {
+                throw new IllegalStateException(OBJECT_NAME + " is already registered by another class loader", e);
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+            }
+            registered = metrics;
+        }
+        return registered;
+    }
+
+
+    /*****************************************************
+     *                 Search Listener                   *
+     *****************************************************/
+    @Override
+    public synchronized void searchStarted(ResolutionEngine engine) {
+        activeSearches++;
+        running.put(engine, new SearchStatistics());
+    }
+
+    @Override
+    public synchronized void searchProgress(ResolutionEngine engine, SearchStatistics statistics) {
+        running.put(engine, statistics.snapshot());    //The search keeps changing its own copy
+    }
+
+    @Override
+    public synchronized void searchFinished(ResolutionEngine engine, SearchStatistics statistics, boolean solved) {
+        activeSearches--;
+        running.remove(engine);
+        searches++;
+        if (solved) {
+            solvedSearches++;
+        }
+        else if (engine.getOutcome() == SolveResult.Outcome.BUDGET_EXCEEDED) {
+            budgetExceededSearches++;
+        }
+        else if (engine.getOutcome() == SolveResult.Outcome.CANCELLED) {
+            cancelledSearches++;
+        }
+        else if (engine.getOutcome() == SolveResult.Outcome.FAILED) {
+            failedSearches++;
+        }
+        totalExpanded += statistics.getExpanded();
+        totalGenerated += statistics.getGenerated();
+        totalDuplicates += statistics.getDuplicates();
+        totalHeuristicEvaluations += statistics.getHeuristicEvaluations();
+        totalNanos += statistics.getElapsedNanos();
+        maxPeakFrontier = Math.max(maxPeakFrontier, statistics.getPeakFrontier());
+        maxNanos = Math.max(maxNanos, statistics.getElapsedNanos());
+        last = statistics;
+    }
+
+
+    /*****************************************************
+     *                 All Searches                      *
+     *****************************************************/
+    @Override
+    public synchronized long getSearches() {
+        return searches;
+    }
+
+    @Override
+    public synchronized long getSolvedSearches() {
+        return solvedSearches;
+    }
+
+    @Override
+    public synchronized long getBudgetExceededSearches() {
+        return budgetExceededSearches;
+    }
+
+    @Override
+    public synchronized long getCancelledSearches() {
+        return cancelledSearches;
+    }
+
+    @Override
+    public synchronized long getFailedSearches() {
+        return failedSearches;
+    }
+
+    @Override
+    public synchronized int getActiveSearches() {
+        return activeSearches;
+    }
+
+    @Override
+    public synchronized long getTotalExpanded() {
+        return totalExpanded;
+    }
+
+    @Override
+    public synchronized long getTotalGenerated() {
+        return totalGenerated;
+    }
+
+    @Override
+    public synchronized long getTotalDuplicates() {
+        return totalDuplicates;
+    }
+
+    @Override
+    public synchronized long getTotalHeuristicEvaluations() {
+        return totalHeuristicEvaluations;
+    }
+
+    @Override
+    public synchronized double getTotalSearchMillis() {
+        return totalNanos / 1e6;
+    }
+
+    @Override
+    public synchronized double getExpandedPerSecond() {
+        return totalNanos == 0 ? 0.0 : totalExpanded * 1e9 / totalNanos;
+    }
+
+    @Override
+    public synchronized int getMaxPeakFrontier() {
+        return maxPeakFrontier;
+    }
+
+    @Override
+    public synchronized double getMaxSearchMillis() {
+        return maxNanos / 1e6;
+    }
+
+
+    /*****************************************************
+     *                 Running Searches                  *
+     *****************************************************/
+    @Override
+    public synchronized long getRunningExpanded() {
+        long total = 0;
+        for (SearchStatistics statistics : running.values()) {
+            total += statistics.getExpanded();
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized long getRunningGenerated() {
+        long total = 0;
+        for (SearchStatistics statistics : running.values()) {
+            total += statistics.getGenerated();
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized long getRunningFrontier() {
+        long total = 0;
+        for (SearchStatistics statistics : running.values()) {
+            total += statistics.getFrontier();
+        }
+        return total;
+    }
+
+    /**
+     * @return the lowest h reached by any running search, -1 if none has
+     * reported its progress yet
+     */
+    @Override
+    public synchronized int getRunningBestHn() {
+        int best = Integer.MAX_VALUE;
+        for (SearchStatistics statistics : running.values()) {
+            best = Math.min(best, statistics.getBestHn());
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    @Override
+    public synchronized double getRunningExpandedPerSecond() {
+        double total = 0.0;
+        for (SearchStatistics statistics : running.values()) {
+            total += statistics.getExpandedPerSecond();
+        }
+        return total;
+    }
+
+
+    /*****************************************************
+     *                 Last Search                       *
+     *****************************************************/
+    @Override
+    public synchronized long getLastExpanded() {
+        return last.getExpanded();
+    }
+
+    @Override
+    public synchronized long getLastGenerated() {
+        return last.getGenerated();
+    }
+
+    @Override
+    public synchronized long getLastDuplicates() {
+        return last.getDuplicates();
+    }
+
+    @Override
+    public synchronized long getLastHeuristicEvaluations() {
+        return last.getHeuristicEvaluations();
+    }
+
+    @Override
+    public synchronized int getLastPeakFrontier() {
+        return last.getPeakFrontier();
+    }
+
+    @Override
+    public synchronized int getLastClosedSize() {
+        return last.getClosedSize();
+    }
+
+    @Override
+    public synchronized double getLastSearchMillis() {
+        return last.getElapsedNanos() / 1e6;
+    }
+
+    @Override
+    public synchronized double getLastSuccessorMillis() {
+        return last.getSuccessorNanos() / 1e6;
+    }
+
+    @Override
+    public synchronized double getLastDuplicateCheckMillis() {
+        return last.getDuplicateCheckNanos() / 1e6;
+    }
+
+    @Override
+    public synchronized double getLastExpandedPerSecond() {
+        return last.getExpandedPerSecond();
+    }
+
+
+    /*****************************************************
+     *                  Operations                       *
+     *****************************************************/
+    /**
+     * Sets every counter back to 0, except the number of searches running
+     */
+    @Override
+    public synchronized void reset() {
+        searches = 0;
+        solvedSearches = 0;
+        budgetExceededSearches = 0;
+        cancelledSearches = 0;
+        failedSearches = 0;
+        totalExpanded = 0;
+        totalGenerated = 0;
+        totalDuplicates = 0;
+        totalHeuristicEvaluations = 0;
+        totalNanos = 0;
+        maxPeakFrontier = 0;
+        maxNanos = 0;
+        last = new SearchStatistics();
+    }
+}
@@ -0,0 +1,83 @@
+package ai_final;
+
+/**
+ * The JMX interface of PlannerMetrics. Times are in milliseconds.
+ * @author Ryan Nichols
+ */
+public interface PlannerMetricsMBean {
+
+    /*****************************************************
+     *                 All Searches                      *
+     *****************************************************/
+    long getSearches();
+
+    long getSolvedSearches();
+
+    long getBudgetExceededSearches();
+
+    long getCancelledSearches();
+
+    long getFailedSearches();
+
+    int getActiveSearches();
+
+    long getTotalExpanded();
+
+    long getTotalGenerated();
+
+    long getTotalDuplicates();
+
+    long getTotalHeuristicEvaluations();
+
+    double getTotalSearchMillis();
+
+    double getExpandedPerSecond();
+
+    int getMaxPeakFrontier();
+
+    double getMaxSearchMillis();
+
+
+    /*****************************************************
+     *                 Running Searches                  *
+     *****************************************************/
+    long getRunningExpanded();
+
+    long getRunningGenerated();
+
+    long getRunningFrontier();
+
+    int getRunningBestHn();
+
+    double getRunningExpandedPerSecond();
+
+
+    /*****************************************************
+     *                 Last Search                       *
+     *****************************************************/
+    long getLastExpanded();
+
+    long getLastGenerated();
+
+    long getLastDuplicates();
+
+    long getLastHeuristicEvaluations();
+
+    int getLastPeakFrontier();
+
+    int getLastClosedSize();
+
+    double getLastSearchMillis();
+
+    double getLastSuccessorMillis();
+
+    double getLastDuplicateCheckMillis();
+
+    double getLastExpandedPerSecond();
+
+
+    /*****************************************************
+     *                  Operations                       *
+     *****************************************************/
+    void reset();
+}
@@ -3,6 +3,15 @@ package ai_final;
 /**
  * This class defines a predicate, which consists of a name and various 
  * arguments, depending on the type.
+ * 
+ * Two predicates are equal if they have the same name and the same arguments.
+ * Predicates created by a Domain are shared, canonical instances that also 
+ * carry a small integer id within that domain, so comparing two predicates of
+ * the same domain is a single integer comparison. They must not be modified.
+ * ResolutionEngine replaces the predicates of its worlds by those of their
+ * domain, so the predicates of a problem and of its states compare by id. 
+ * Predicates built directly, such as those read by ProblemReader, have no
+ * domain and are compared by name and arguments.
  * @author Ryan Nichols
  */
 public class Predicate {
@@ -11,6 +20,9 @@ public class Predicate {
     Block argument1;
     Block argument2;
     Location location;
+    Domain domain;      //Domain that created this predicate, null for any other
+    int id = -1;        //Id within its domain, -1 if it has none
+    int hash;           //Cached hash code, 0 if not yet computed
     
     //String constants
     final public static String ON = "ON";
@@ -95,6 +107,7 @@ public class Predicate {
 
     public void setName(String name) {
         this.name = name;
+        this.hash = 0;
     }
 
     public Block getArgument1() {
@@ -103,6 +116,7 @@ public class Predicate {
 
     public void setArgument1(Block argument1) {
         this.argument1 = argument1;
+        this.hash = 0;
     }
 
     public Block getArgument2() {
@@ -111,6 +125,7 @@ public class Predicate {
 
     public void setArgument2(Block argument2) {
         this.argument2 = argument2;
+        this.hash = 0;
     }
 
     public Location getLocation() {
@@ -119,23 +134,65 @@ public class Predicate {
 
     public void setLocation(Location location) {
         this.location = location;
+        this.hash = 0;
+    }
+
+    public Domain getDomain() {
+        return domain;
+    }
+
+    public int getId() {
+        return id;
     }
     
     /****************************************************
     *                  Utility Methods                  *
     *****************************************************/
     /**
-     * Returns true if this predicate matches the provided Predicate
+     * Returns true if this predicate has the same name and arguments as the 
+     * provided Predicate
      * @param o Other Predicate to be compared
      * @return true if equal, false otherwise
      */
+    @Override
     public boolean equals(Object o) {
-        
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof Predicate)) {
-            return super.equals(o);
+            return false;
         }
         Predicate other = (Predicate) o;
-        
+        if (domain != null && domain == other.domain) {     //Same domain, so the ids decide
+            return id == other.id;
+        }
+        return name.equals(other.getName())
+                && sameArgument(argument1, other.getArgument1())
+                && sameArgument(argument2, other.getArgument2())
+                && sameArgument(location, other.getLocation());
+    }
+    
+    @Override
+    public int hashCode() {
+        if (hash == 0) {
+            int h = name.hashCode();
+            h = 31 * h + (argument1 == null ? 0 : argument1.hashCode());
+            h = 31 * h + (argument2 == null ? 0 : argument2.hashCode());
+            h = 31 * h + (location == null ? 0 : location.hashCode());
+            hash = h;
+        }
+        return hash;
+    }
+    
+    /**
+     * Returns true if this predicate matches the provided Predicate. Unlike 
+     * equals(), an argument that is missing (null) in either predicate 
+     * matches any value of that argument in the other, e.g. CLEAR(null) 
+     * matches CLEAR(A).
+     * @param other Other Predicate to be compared
+     * @return true if matching, false otherwise
+     */
+    public boolean matches(Predicate other) {
         boolean eq; 
         eq = name.equals(other.getName());  
         if (eq) {
@@ -153,6 +210,16 @@ public class Predicate {
         return eq;
     }
     
+    /**
+     * Helper method for equals, compares two possibly missing arguments
+     * @param a
+     * @param b
+     * @return true if both are missing or both are equal
+     */
+    private static boolean sameArgument(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+    
     public String toString() {
         String output = name + "(";
         if(argument1 != null) {                     //If there is an argument1               
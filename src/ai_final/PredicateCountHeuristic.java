@@ -0,0 +1,55 @@
+package ai_final;
+
+import java.util.HashSet;
+
+/**
+ * This heuristic counts the predicates in a world that are not in the goal 
+ * world. It is the original heuristic of the solver, and is still used unless
+ * another is selected. A single action can change the count by up to 2, so it
+ * is not admissible.
+ * The count for a new world is derived from the count of the world it was 
+ * obtained from in constant time.
+ * @author Ryan Nichols
+ */
+public class PredicateCountHeuristic implements Heuristic {
+    HashSet<Predicate> goalIndex;   //The goal world predicates, null until bound to a goal
+
+    public PredicateCountHeuristic() {
+    }
+
+    @Override
+    public Heuristic forGoal(PackedWorld goal) {
+        PredicateCountHeuristic heuristic = new PredicateCountHeuristic();
+        heuristic.goalIndex = new HashSet<>(goal.unpack());
+        return heuristic;
+    }
+
+    @Override
+    public int estimate(PackedWorld world) {
+        int predCount = 0; //Number of predicates in world that are not in goal
+        for (Predicate p : world.unpack()) {
+            if (!goalIndex.contains(p)) 
+                predCount++;
+        }
+        return predCount;
+    }
+
+    @Override
+    public int estimate(PackedWorld world, int parentEstimate, Changes changes) {
+        int predCount = parentEstimate;
+        for (Predicate p : changes.getRemoved()) {
+            if (!goalIndex.contains(p))     //A predicate that was not in the goal is gone
+                predCount--;
+        }
+        for (Predicate p : changes.getAdded()) {
+            if (!goalIndex.contains(p))     //A predicate that is not in the goal is new
+                predCount++;
+        }
+        return predCount;
+    }
+
+    @Override
+    public boolean isAdmissible() {
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This class defines a problem to solve: an initial world and a goal world
+ * (lists of predicates), with a name to tell problems apart when many are
+ * solved at once (see BatchSolver).
+ * @author Ryan Nichols
+ */
+public class Problem {
+    String name;
+    ArrayList<Predicate> initialWorld;
+    ArrayList<Predicate> goalWorld;
+
+    /**
+     * @param name
+     * @param initialWorld
+     * @param goalWorld
+     */
+    public Problem(String name, ArrayList<Predicate> initialWorld, ArrayList<Predicate> goalWorld) {
+        this.name = name;
+        this.initialWorld = initialWorld;
+        this.goalWorld = goalWorld;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public String getName() {
+        return name;
+    }
+
+    public ArrayList<Predicate> getInitialWorld() {
+        return initialWorld;
+    }
+
+    public ArrayList<Predicate> getGoalWorld() {
+        return goalWorld;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,107 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * This class creates random problems, so the solver can be tried on problems
+ * of any size. The same seed always gives the same problems.
+ *
+ * Each world is drawn uniformly from all the worlds of the given blocks and
+ * locations with an empty hand: the blocks are shuffled, then split into one
+ * tower per location at random cut points. Every order of the blocks and 
+ * every choice of tower heights is equally likely, and each world comes from
+ * exactly one of them. The initial and goal worlds are drawn independently.
+ *
+ * Blocks are named A to Z, then AA, AB and so on, and locations L1, L2, ...
+ * @author Ryan Nichols
+ */
+public class ProblemGenerator {
+    Random random;
+    int count;          //Number of problems created, used to name them
+
+    /**
+     * @param seed
+     */
+    public ProblemGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Creates a random problem whose initial and goal worlds differ
+     * @param blockCount number of blocks, at least 1
+     * @param locationCount number of locations, at least 1
+     * @return the problem, named after its size and position in the sequence
+     */
+    public Problem next(int blockCount, int locationCount) {
+        if (blockCount < 1 || locationCount < 1) {
+            throw new IllegalArgumentException("Need at least one block and one location: " + blockCount + ", " + locationCount);
+        }
+        String initial = randomStacks(blockCount, locationCount);
+        String goal = randomStacks(blockCount, locationCount);
+        while (goal.equals(initial) && (blockCount > 1 || locationCount > 1)) {
+            goal = randomStacks(blockCount, locationCount);
+        }
+        count++;
+        return new Problem("random-" + blockCount + "x" + locationCount + "-" + count,
+                           ProblemReader.parseWorld(initial), ProblemReader.parseWorld(goal));
+    }
+
+    /**
+     * Draws a random world and writes it like a problem file does
+     * @param blockCount
+     * @param locationCount
+     * @return the stacks of the world separated by '|', bottom block first
+     */
+    public String randomStacks(int blockCount, int locationCount) {
+        ArrayList<String> blocks = new ArrayList<>();
+        for (int i = 0; i < blockCount; i++) {
+            blocks.add(blockName(i));
+        }
+        Collections.shuffle(blocks, random);
+
+        //Choose locationCount - 1 cut points among blockCount + locationCount - 1 slots
+        int slots = blockCount + locationCount - 1;
+        boolean[] cut = new boolean[slots];
+        for (int chosen = 0; chosen < locationCount - 1; ) {
+            int slot = random.nextInt(slots);
+            if (!cut[slot]) {
+                cut[slot] = true;
+                chosen++;
+            }
+        }
+
+        StringBuilder stacks = new StringBuilder();
+        int next = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (cut[slot]) {
+                stacks.append(" |");
+            }
+            else {
+                stacks.append(' ').append(blocks.get(next++));
+            }
+        }
+        return stacks.toString().trim();
+    }
+
+
+    /*****************************************************
+     *                 Utility Methods                   *
+     *****************************************************/
+    /**
+     * @param index
+     * @return the name of a block: A to Z for the first 26, then AA, AB, ...
+     */
+    public static String blockName(int index) {
+        String name = "";
+        for (int i = index; i >= 0; i = i / 26 - 1) {
+            name = (char) ('A' + i % 26) + name;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,177 @@
+package ai_final;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class reads problems from a text file, one problem per line, so large
+ * sets of problems can be solved without typing them in. The file is read
+ * through a buffered reader, one line at a time, so it can be much larger
+ * than memory when used with BatchSolver.
+ *
+ * Each line holds an optional name followed by a colon, the initial world, a
+ * semicolon and the goal world. A world lists the stack on each location,
+ * bottom block first, with the stacks separated by '|'. The first stack is on
+ * location L1, the second on L2, and so on, and an empty stack is a clear
+ * location. Anything after a '#' is a comment, and blank lines are skipped.
+ * For example:
+ * <pre>
+ * # name: initial world ; goal world
+ * swap: A B C | D | | ; C B | A D | |
+ * </pre>
+ * Problems without a name are named after their line number.
+ * @author Ryan Nichols
+ */
+public class ProblemReader implements Iterator<Problem>, Closeable {
+    BufferedReader reader;
+    String source;          //File name, used in error messages
+    int lineNumber;
+    Problem next;           //Next problem to return, null if not read yet
+
+    /**
+     * Opens a problem file
+     * @param path
+     * @throws IOException if the file cannot be opened
+     */
+    public ProblemReader(Path path) throws IOException {
+        this(Files.newBufferedReader(path, StandardCharsets.UTF_8), path.toString());
+    }
+
+    /**
+     * Reads problems from an already open reader
+     * @param reader
+     * @param source name of the input, used in error messages
+     */
+    public ProblemReader(BufferedReader reader, String source) {
+        this.reader = reader;
+        this.source = source;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * @return true if there is another problem in the file
+     * @throws IllegalArgumentException if the next problem line is invalid
+     * @throws IllegalStateException if the file cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String line;
+            try {
+                line = reader.readLine();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + source, e);
+            }
+            if (line == null) {
+                return false;
+            }
+            lineNumber++;
+            try {
+                next = parseProblem(line, "line " + lineNumber);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Problem next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Problem problem = next;
+        next = null;
+        return problem;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses one line of a problem file
+     * @param line
+     * @param defaultName name of the problem if the line does not name it
+     * @return the problem, or null if the line is blank or a comment
+     * @throws IllegalArgumentException if the line is not a valid problem
+     */
+    public static Problem parseProblem(String line, String defaultName) {
+        int comment = line.indexOf('#');
+        if (comment >= 0) {
+            line = line.substring(0, comment);
+        }
+        line = line.trim();
+        if (line.isEmpty()) {
+            return null;
+        }
+
+        String name = defaultName;
+        int colon = line.indexOf(':');
+        if (colon >= 0) {
+            name = line.substring(0, colon).trim();
+            line = line.substring(colon + 1);
+        }
+        String[] worlds = line.split(";", -1);
+        if (worlds.length != 2) {
+            throw new IllegalArgumentException("Expected an initial and a goal world separated by ';'");
+        }
+        return new Problem(name, parseWorld(worlds[0]), parseWorld(worlds[1]));
+    }
+
+    /**
+     * Parses a world written as stacks separated by '|', bottom block first
+     * @param stacks for example "A B C | D | |"
+     * @return the predicates of the world, stack by stack
+     * @throws IllegalArgumentException if a block appears twice
+     */
+    public static ArrayList<Predicate> parseWorld(String stacks) {
+        ArrayList<Predicate> world = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        String[] columns = stacks.split("\\|", -1);
+        for (int l = 0; l < columns.length; l++) {
+            Location location = Names.location("L" + (l + 1));
+            Block top = null;
+            for (String token : columns[l].trim().split("\\s+")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                if (!seen.add(token)) {
+                    throw new IllegalArgumentException("Block " + token + " appears twice");
+                }
+                Block block = Names.block(token);
+                if (top == null) {
+                    world.add(new Predicate(Predicate.ONTABLE, block, location));
+                }
+                else {
+                    world.add(new Predicate(Predicate.ON, block, top));
+                }
+                top = block;
+            }
+            if (top == null) {
+                world.add(new Predicate(Predicate.CLEARLOC, location));
+            }
+            else {
+                world.add(new Predicate(Predicate.CLEAR, top));
+            }
+        }
+        return world;
+    }
+}
@@ -2,7 +2,9 @@ package ai_final;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.PriorityQueue;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class contains methods to find a path (list of State objects) from an 
@@ -10,11 +12,36 @@ import java.util.PriorityQueue;
  * To solve with this class, call the two argument constructor and provide
  * an initial world and goal world description (two ArrayList of Predicate 
  * objects). Then call the solve() method on this object to get the path.
+ * The heuristic used by the searches can be selected with setHeuristic().
  * @author Ryan Nichols
  */
 public class ResolutionEngine {
     ArrayList<Predicate> initialWorld;
     ArrayList<Predicate> goalWorld;
+    Domain domain;                  //Domain of the two worlds, built by domain() and dropped when either changes
+    Heuristic heuristic = new PredicateCountHeuristic();
+    SearchStrategy strategy = SearchStrategy.GREEDY;
+    double weight = 2.0;            //Weight of h for WEIGHTED_ASTAR, starting weight for ANYTIME
+    long timeBudget = 1000;         //Time budget of ANYTIME, in milliseconds
+    long timeLimit = 0;             //Time after which solve() gives up, in milliseconds, 0 for none
+    long expansionLimit = 0;        //Expanded states after which solve() gives up, 0 for none
+    long heapLimit = 0;             //Estimated bytes of kept states after which solve() gives up, 0 for none
+    volatile boolean cancelled;     //Set by cancel(), from any thread
+    PlanListener planListener;      //Receives the paths found by ANYTIME, may be null
+    SearchListener searchListener;  //Receives the progress of solve(), may be null
+    SearchListener activeListener;  //searchListener, behind flight recorder events while recording
+    int progressInterval = Integer.getInteger("ai_final.progressInterval", PROGRESS_INTERVAL);  //Expanded states between progress calls
+    boolean verbose = true;         //Print a message when a solution is found
+    boolean symmetryPruning = true; //Only try one of the locations that are empty in the goal world
+    boolean macroMoves = false;     //Search with Moves instead of single actions
+    SearchStatistics statistics = new SearchStatistics();  //Counters of the last search
+    SolveResult.Outcome outcome;    //How the last search ended, null before the first
+    SolveResult.Outcome stopReason; //Why the last search stopped early, null if it did not
+    State bestState;                //Expanded state with the lowest h and an empty hand, the end of the partial plan
+    
+    final static double ANYTIME_WEIGHT_STEP = 0.5;  //Weight decrease between ANYTIME searches
+    final public static int PROGRESS_INTERVAL = 10000;  //Default expanded states between calls to SearchListener.searchProgress()
+    final static int STATE_BYTES = 180;             //Measured bytes of a kept state and its bookkeeping, besides its packed world slots
 
     /*****************************************************
      *                   Constructors                    *
@@ -27,6 +54,31 @@ public class ResolutionEngine {
         this.initialWorld = initialWorld;
         this.goalWorld = goalWorld;
     }
+    
+    /**
+     * Creates an engine for a new problem with the same settings (heuristic,
+     * strategy, weight, time budget, limits, plan listener and verbosity) as 
+     * another engine. The new engine is not cancelled.
+     * @param settings the engine to copy the settings from
+     * @param initialWorld
+     * @param goalWorld
+     */
+    public ResolutionEngine(ResolutionEngine settings, ArrayList<Predicate> initialWorld, ArrayList<Predicate> goalWorld) {
+        this(initialWorld, goalWorld);
+        this.heuristic = settings.heuristic;
+        this.strategy = settings.strategy;
+        this.weight = settings.weight;
+        this.timeBudget = settings.timeBudget;
+        this.timeLimit = settings.timeLimit;
+        this.expansionLimit = settings.expansionLimit;
+        this.heapLimit = settings.heapLimit;
+        this.planListener = settings.planListener;
+        this.searchListener = settings.searchListener;
+        this.progressInterval = settings.progressInterval;
+        this.verbose = settings.verbose;
+        this.symmetryPruning = settings.symmetryPruning;
+        this.macroMoves = settings.macroMoves;
+    }
 
     
     /*****************************************************
@@ -38,6 +90,7 @@ public class ResolutionEngine {
 
     public void setInitialWorld(ArrayList<Predicate> initialWorld) {
         this.initialWorld = initialWorld;
+        this.domain = null;
     }
 
     public ArrayList<Predicate> getGoalWorld() {
@@ -46,6 +99,210 @@ public class ResolutionEngine {
 
     public void setGoalWorld(ArrayList<Predicate> goalWorld) {
         this.goalWorld = goalWorld;
+        this.domain = null;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * Selects the heuristic used by the searches. The default is 
+     * PredicateCountHeuristic.
+     * @param heuristic 
+     */
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public SearchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Selects how solve() orders the states it evaluates. The default is 
+     * SearchStrategy.GREEDY. The other strategies use MisplacedBlocksHeuristic, which
+     * is consistent, if the selected heuristic is not admissible.
+     * @param strategy 
+     */
+    public void setStrategy(SearchStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * @param weight weight of h for WEIGHTED_ASTAR, and starting weight for 
+     * ANYTIME. Must be at least 1
+     */
+    public void setWeight(double weight) {
+        if (weight < 1.0) {
+            throw new IllegalArgumentException("Weight must be at least 1: " + weight);
+        }
+        this.weight = weight;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * @param timeBudget time ANYTIME may search for shorter paths, in 
+     * milliseconds
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * @param timeLimit time after which solve() gives up and returns an empty
+     * list, in milliseconds, 0 for no limit (the default). ANYTIME uses the 
+     * time budget instead
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public long getExpansionLimit() {
+        return expansionLimit;
+    }
+
+    /**
+     * @param expansionLimit number of expanded states after which solve() 
+     * gives up, 0 for no limit (the default)
+     */
+    public void setExpansionLimit(long expansionLimit) {
+        this.expansionLimit = expansionLimit;
+    }
+
+    public long getHeapLimit() {
+        return heapLimit;
+    }
+
+    /**
+     * @param heapLimit memory the states kept by solve() may take, in bytes,
+     * 0 for no limit (the default). The memory is estimated from the number 
+     * of states kept and the number of blocks, not measured, so it only 
+     * counts this search, however many others share the heap
+     */
+    public void setHeapLimit(long heapLimit) {
+        this.heapLimit = heapLimit;
+    }
+
+    /**
+     * Asks solve() to stop as soon as it can, which it then reports as 
+     * SolveResult.Outcome.CANCELLED. May be called from any thread. The 
+     * engine stays cancelled, so a call made just before solve() starts is 
+     * not lost; solving again needs a new engine. Interrupting the thread 
+     * running solve() also cancels it.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return how the last search (solve(), solveIDAStar(), solveParallel()
+     * or solveBidirectional()) ended, null before the first
+     */
+    public SolveResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return the counters of the last search
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    public PlanListener getPlanListener() {
+        return planListener;
+    }
+
+    public void setPlanListener(PlanListener planListener) {
+        this.planListener = planListener;
+    }
+
+    public SearchListener getSearchListener() {
+        return searchListener;
+    }
+
+    /**
+     * @param searchListener receives the progress and counters of solve(), 
+     * null for none. Setting a listener also measures the time spent 
+     * generating successors and checking them for duplicates
+     */
+    public void setSearchListener(SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * @param progressInterval number of expanded states between calls to 
+     * SearchListener.searchProgress(), which is also how often flight 
+     * recorder progress events are sampled. The default is PROGRESS_INTERVAL,
+     * or the ai_final.progressInterval system property if it is set
+     */
+    public void setProgressInterval(int progressInterval) {
+        if (progressInterval < 1) {
+            throw new IllegalArgumentException("Progress interval must be at least 1: " + progressInterval);
+        }
+        this.progressInterval = progressInterval;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * @param verbose false to stop the searches from printing a message when 
+     * they find a solution, for example when solving many problems at once
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public boolean isSymmetryPruning() {
+        return symmetryPruning;
+    }
+
+    /**
+     * @param symmetryPruning false to put held blocks down on every clear 
+     * location, instead of only one of the clear locations that are empty in
+     * the goal world (see LocationSymmetry). Pruning does not change the 
+     * length of the shortest path, and is on by default
+     */
+    public void setSymmetryPruning(boolean symmetryPruning) {
+        this.symmetryPruning = symmetryPruning;
+    }
+
+    public boolean isMacroMoves() {
+        return macroMoves;
+    }
+
+    /**
+     * @param macroMoves true to search with Moves, which move a block in one
+     * step, instead of single actions. The search is half as deep and never 
+     * creates states where a block is held, and the paths found are as short.
+     * The states of the returned path then hold Moves, and 
+     * Action.toActions() gives their single actions. Ignored if the goal 
+     * world holds a block
+     */
+    public void setMacroMoves(boolean macroMoves) {
+        this.macroMoves = macroMoves;
     }
     
     
@@ -60,98 +317,585 @@ public class ResolutionEngine {
      * problems, such as a complex 10 block world of blocks problem, this 
      * algorithm was modified slightly by adjusting the sorting method of the 
      * priority queue.
+     * The sorting method is now chosen with setStrategy(): the default 
+     * SearchStrategy.GREEDY is the modified method, and traditional A*, 
+     * weighted A* and an anytime search are also available.
      * 
      * @return An ArrayList of States which define a path from the initial world
-     * to the goal world
+     * to the goal world, empty if none was found (see getOutcome() for why)
      */
     public ArrayList<State> solve() {
-        PriorityQueue<State> unevaluatedStates = new PriorityQueue<>();    //List of intermediate states, sorted by the State method calcFn()
-        ArrayList<State> evaluatedStates = new ArrayList<>();
-        ArrayList<State> stateList;
+        return solveWithResult().getStates();
+    }
+    
+    /**
+     * Solves like solve(), within the time, expansion and memory limits of 
+     * this engine, and reports how the search ended. If no path was found, 
+     * the result holds the best partial path instead. If the search throws,
+     * the listener is still told that it finished, getOutcome() is FAILED,
+     * and the exception or error is passed on.
+     * @return the outcome, path and counters of the search
+     */
+    public SolveResult solveWithResult() {
+        startStatistics();
+        ArrayList<State> states;
+        boolean solved = false;
+        outcome = SolveResult.Outcome.FAILED;           //Unless the search returns
+        try {
+            if (strategy == SearchStrategy.ANYTIME) {
+                states = solveAnytime();
+                solved = !states.isEmpty();
+            }
+            else {
+                State finalState = bestFirst(strategy.openList(weight), heuristicForStrategy(), strategy == SearchStrategy.GREEDY, Integer.MAX_VALUE, deadline());
+                solved = finalState != null;
+                if (solved) {
+                    reportSolution();
+                }
+
+                //Build the list of states from the initial state to the final state
+                states = buildStateList(finalState);
+            }
+
+            if (solved) {
+                outcome = SolveResult.Outcome.SOLVED;
+            }
+            else {
+                outcome = stopReason != null ? stopReason : SolveResult.Outcome.UNSOLVABLE;  //Nothing was left to evaluate
+            }
+        } finally {
+            finishStatistics(solved);                   //Also when the search throws, so listeners see every search end
+        }
+        return new SolveResult(outcome, states, solved ? states : buildStateList(bestState), statistics);
+    }
+    
+    /**
+     * Starts the counters of a new search and tells the listener, if any
+     */
+    private void startStatistics() {
+        statistics = new SearchStatistics();
+        statistics.startNanos = System.nanoTime();
+        stopReason = null;
+        bestState = null;
+        activeListener = FlightRecorderSupport.wrap(searchListener);
+        if (activeListener != null) {
+            activeListener.searchStarted(this);
+        }
+    }
+    
+    /**
+     * @return System.nanoTime() at which the search started by 
+     * startStatistics() must give up, 0 if there is no time limit
+     */
+    private long deadline() {
+        return timeLimit == 0 ? 0 : statistics.startNanos + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+    }
+    
+    /**
+     * Records that the problem was answered by a path from a SolutionCache,
+     * without a search
+     * @param states the path
+     * @return a SOLVED result holding the path, with counters of zero
+     */
+    SolveResult cachedResult(ArrayList<State> states) {
+        statistics = new SearchStatistics();
+        outcome = SolveResult.Outcome.SOLVED;
+        return new SolveResult(outcome, states, states, statistics);
+    }
+    
+    /**
+     * Records the time taken by the search and tells the listener, if any
+     * @param solved true if a path was found
+     */
+    private void finishStatistics(boolean solved) {
+        statistics.elapsedNanos = System.nanoTime() - statistics.startNanos;
+        if (activeListener != null) {
+            activeListener.searchFinished(this, statistics, solved);
+        }
+        activeListener = null;
+    }
+    
+    /**
+     * Anytime search (ARA*), used by solve() with SearchStrategy.ANYTIME. 
+     * Finds a first path with the greedy method, which is fast, then runs 
+     * weighted A* with the engine's weight, and again with the weight lowered
+     * by ANYTIME_WEIGHT_STEP each time until it reaches 1. Each search only 
+     * keeps states that can still lead to a path shorter than the best path 
+     * found so far. Every shorter path is passed to the PlanListener. Stops 
+     * when the time budget runs out, once the search with weight 1 ends, or 
+     * when a search is cancelled or runs out of expansions or memory.
+     * @return the shortest path found, or an empty list if none was found 
+     * within the time budget
+     */
+    private ArrayList<State> solveAnytime() {
+        Heuristic admissible = heuristicForStrategy();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        ArrayList<State> bestPlan = new ArrayList<>();
+        int bestLength = Integer.MAX_VALUE;
+        
+        State firstState = bestFirst(SearchStrategy.GREEDY.openList(1.0), heuristic, true, Integer.MAX_VALUE, deadline);
+        if (firstState != null) {
+            bestLength = firstState.getGn();
+            bestPlan = buildStateList(firstState);
+            if (planListener != null) {
+                planListener.planFound(bestPlan, bestLength, Double.POSITIVE_INFINITY);
+            }
+        }
+        
+        double w = Math.max(1.0, weight);
+        while (stopReason == null && System.nanoTime() - deadline < 0) {   //Until out of budget or cancelled
+            State finalState = bestFirst(strategy.openList(w), admissible, false, bestLength, deadline);
+            if (finalState != null && finalState.getGn() < bestLength) {   //Null if stopped early, or no shorter path at this weight
+                bestLength = finalState.getGn();
+                bestPlan = buildStateList(finalState);
+                if (planListener != null) {
+                    planListener.planFound(bestPlan, bestLength, w);
+                }
+            }
+            if (w <= 1.0) {
+                break;
+            }
+            w = Math.max(1.0, w - ANYTIME_WEIGHT_STEP);
+        }
+        
+        if (!bestPlan.isEmpty()) {
+            reportSolution();
+        }
+        return bestPlan;
+    }
+    
+    /**
+     * The best first search behind solve().
+     * @param unevaluatedStates empty open list, giving states in the order 
+     * they are evaluated
+     * @param selected heuristic, not yet bound to the goal world
+     * @param stopAtGeneration true to stop as soon as the goal world is 
+     * generated, like the original method. Otherwise the search stops when 
+     * the goal state is taken from the queue, since only then is its path 
+     * known to be as short as the strategy guarantees. Such a search also
+     * evaluates a world again when it finds a shorter path to it, which only
+     * happens if the heuristic is not consistent
+     * @param lengthBound states whose g + h is at least this are not kept, 
+     * Integer.MAX_VALUE to keep every state
+     * @param deadline System.nanoTime() at which to give up, 0 for no limit
+     * @return the goal state, whose ancestors form the path, or null if no 
+     * path was found. If the search stopped early, stopReason says why
+     */
+    private State bestFirst(OpenList unevaluatedStates, Heuristic selected, boolean stopAtGeneration, int lengthBound, long deadline) {
+        ClosedSet evaluatedStates = new ClosedSet();                       //Already evaluated states, by world fingerprint
+        Domain domain = domain();                                           //Numbering of blocks and locations for packed worlds
+        if (!haveSameBlocks(domain)) {
+            return null;                                //No path, and the worlds cannot be packed
+        }
+        Zobrist zobrist = new Zobrist(domain);
         boolean solutionFound = false;  //Loop breaker
         State finalState = null;        
+        long goalFingerprint = zobrist.fingerprint(goalWorld);
+        PackedWorld goalPacked = PackedWorld.pack(domain, goalWorld);
+        Heuristic distanceToGoalWorld = selected.forGoal(goalPacked);   //The heuristic function
+        PackedWorld initPacked = PackedWorld.pack(domain, initialWorld);
+        LocationSymmetry symmetry = locationSymmetry();
+        boolean moves = useMacroMoves();
+        boolean reopen = !stopAtGeneration;     //Evaluate a world again when a shorter path to it is found
+        SearchStatistics stats = statistics;
+        SearchListener listener = activeListener;
+        long stateBytes = stateBytes(domain);
+        boolean timed = listener != null;   //Measure where the time goes
+        long mark = 0;                      //Last time read, when timed
         
         
         //Create a state from the initial world description
-        int distanceToGoal = calcDistanceToGoal(initialWorld, goalWorld);
+        int distanceToGoal = distanceToGoalWorld.estimate(initPacked);
+        stats.heuristicEvaluations++;
         State initState = new State(initialWorld,   //State using the initial world conditions
                                     null,           //No action has been performed as this is the initial state
                                     null,           //No parent exists for the 
                                     0,              //The distance from the initial state to itself is 0
-                                    distanceToGoal);//The distance from the inital state to the goal as calculated by the heuristic function, calcDistanceToGoal
+                                    distanceToGoal);//The distance from the inital state to the goal as calculated by the heuristic function
+        initState.setFingerprint(zobrist.fingerprint(initialWorld));
+        initState.setPacked(initPacked);
+        if (bestState == null) {
+            bestState = initState;                      //The partial plan is empty until a state closer to the goal is found
+        }
+        if (initState.getFingerprint() == goalFingerprint && initPacked.equals(goalPacked)) {
+            return initState;                           //Already at the goal, the empty path is the answer
+        }
         
         //Add the initial state to the list of 
         unevaluatedStates.add(initState);
                
         //Iterate through the priority queue until it is empty or the solution has been found
         while(unevaluatedStates.size() > 0 && solutionFound == false) {
+            stopReason = checkLimits(deadline, (long) (unevaluatedStates.size() + evaluatedStates.size()) * stateBytes);
+            if (stopReason != null) {
+                return null;                            //Out of budget, or cancelled
+            }
+            
             //Obtain and remove the current best state in the queue
             State current = unevaluatedStates.poll(); 
             //System.out.println("Evaluating state, distance: " + calcDistanceToGoal(current.getPredicate(), goalWorld));
             
-            //Get a list of possible actions to be performed on this state
-            ArrayList<Action> possibleActions = current.getPossibleActions();            
+            //The same world may have been queued more than once, only evaluate it the first time,
+            //or again if this path to it is shorter and the path length matters
+            State closed = evaluatedStates.find(current);
+            if (closed != null && (!reopen || closed.getGn() <= current.getGn())) {
+                stats.duplicates++;
+                continue;
+            }
+            
+            //Check if this is the goal world, when not checked as it was generated
+            if (!stopAtGeneration && current.getFingerprint() == goalFingerprint && current.getPacked().equals(goalPacked)) {
+                finalState = current;
+                break;
+            }
+            
+            //Walk through the states that can be reached from this state, one at a time
+            Iterator<Successor> successors = current.successors(zobrist, symmetry, moves);
             
             //Add to completed list
             evaluatedStates.add(current);
+            stats.expanded++;
+            if (current.getHn() < stats.bestHn && current.getPacked().getHeld() == PackedWorld.EMPTY) {
+                stats.bestHn = current.getHn();
+                bestState = current;                    //Closest to the goal so far, with the hand empty so buildStateList keeps it
+            }
+            if (listener != null && stats.expanded % progressInterval == 0) {
+                stats.elapsedNanos = System.nanoTime() - stats.startNanos;
+                stats.frontier = unevaluatedStates.size();
+                listener.searchProgress(this, stats);
+            }
             
-            //Iterate through possible actions
-            for (Action a : possibleActions) {
-                //Run an action on the current world to obtain a modified world
-                ArrayList<Predicate> modifiedWorld = a.applyAction(current.getPredicate());
-                
-                boolean checked = false;
+            if (timed) {
+                mark = System.nanoTime();
+            }
+            while (successors.hasNext()) {
+                Successor successor = successors.next();
+                stats.generated++;
+                if (timed) {
+                    long now = System.nanoTime();
+                    stats.successorNanos += now - mark;
+                    mark = now;
+                }
                 
                 //Check if new world is equivalent to that of an already evaluated state
-                for(State s : evaluatedStates) {
-                    if (areWorldsEqual(s.getPredicate(), modifiedWorld)){   //If match is found
-                        checked = true;                                     //Mark world as already checked
-                        break;                                              //Stop searching
-                    }
+                //(reached by a path at least as short, when reopening), or is already
+                //queued with a path at least as short
+                State evaluated = evaluatedStates.find(successor);
+                boolean duplicate = evaluated != null && (!reopen || evaluated.getGn() <= successor.getGn());
+                if (!duplicate) {
+                    State queued = unevaluatedStates.find(successor);
+                    duplicate = queued != null && queued.getGn() <= successor.getGn();
+                }
+                if (timed) {
+                    long now = System.nanoTime();
+                    stats.duplicateCheckNanos += now - mark;
+                    mark = now;
                 }
-                if (checked)
+                if (duplicate) {
+                    stats.duplicates++;
                     continue;                                               //Continue to next possible world
-                
-                //Create a State from this modified world
-                State childState = new State(modifiedWorld,                                 //The new predicate set
-                                             a,                                             //The action performed to obtain the state
-                                             current,                                       //The parent of the new state
-                                             current.getGn() + 1,                           //Gn of the new state is 1 more than that of its parent
-                                             calcDistanceToGoal(modifiedWorld, goalWorld)); //The calculated distance from the new state to the goal
+                }
                 
                 //Check if the modified world is the same as the goal world
-                if(areWorldsEqual(modifiedWorld, goalWorld)) {  //If it matches the goal
+                if(stopAtGeneration && successor.getFingerprint() == goalFingerprint && successor.getWorld().equals(goalPacked)) {  //If it matches the goal
                     solutionFound = true;                       //Mark solution as found to break out of while loop
-                    finalState = childState;                    //Save the state
-                    System.out.println("Solution found!\n");    
+                    finalState = successor.toState(0);          //Save the state
                     break;                                      //Stop searching
                 }
                 else { //Otherwise
-                    //Add the new state to the list of unevaluated states
-                    unevaluatedStates.add(childState);
-                    //System.out.println("Not goal and not evaluated, adding to queue: " + calcDistanceToGoal(modifiedWorld, goalWorld)); //Debug
+                    //Create a State from this modified world and add it to the list of unevaluated states
+                    int childDistance = distanceToGoalWorld.estimate(successor.getWorld(), current.getHn(), successor.getChanges());
+                    stats.heuristicEvaluations++;
+                    if (successor.getGn() + childDistance < lengthBound) {  //Otherwise it cannot lead to a shorter path
+                        State childState = successor.toState(childDistance); //The calculated distance from the new state to the goal
+                        unevaluatedStates.add(childState);                  //Replaces the queued state of the same world, if any
+                        //System.out.println("Not goal and not evaluated, adding to queue: " + childState.getHn()); //Debug
+                    }
+                    if (timed) {
+                        mark = System.nanoTime();                       //Not counted as generating successors
+                    }
                 }
             }
+            stats.updateSizes(unevaluatedStates.size(), evaluatedStates.size());
+            current.compact();  //Evaluated states only keep their packed world
+        }
+        return finalState;
+    }
+    
+    /**
+     * Checks whether the search must stop before finding a path
+     * @param deadline System.nanoTime() at which to give up, 0 for no limit
+     * @param keptBytes estimated memory of the states kept by the search
+     * @return CANCELLED or BUDGET_EXCEEDED, or null to go on
+     */
+    private SolveResult.Outcome checkLimits(long deadline, long keptBytes) {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            return SolveResult.Outcome.CANCELLED;
+        }
+        if ((deadline != 0 && System.nanoTime() - deadline > 0)
+                || (expansionLimit != 0 && statistics.expanded >= expansionLimit)
+                || (heapLimit != 0 && keptBytes > heapLimit)) {
+            return SolveResult.Outcome.BUDGET_EXCEEDED;
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the domain of the two worlds, building it the first time it is
+     * needed. Both worlds are then replaced by lists of the domain's 
+     * predicates, so the predicates of the problem, like those of the states
+     * the searches create, compare by id
+     * @return the domain
+     */
+    Domain domain() {
+        if (domain == null) {
+            domain = Domain.fromWorlds(initialWorld, goalWorld);
+            initialWorld = domain.internAll(initialWorld);
+            goalWorld = domain.internAll(goalWorld);
+        }
+        return domain;
+    }
+    
+    /**
+     * Blocks cannot appear or disappear, so there is no path between worlds
+     * that do not have the same blocks. Such worlds cannot be packed either
+     * @param domain domain of both worlds
+     * @return true if every block of the domain is placed in both worlds
+     */
+    private boolean haveSameBlocks(Domain domain) {
+        return PackedWorld.places(domain, initialWorld) && PackedWorld.places(domain, goalWorld);
+    }
+    
+    /**
+     * @param domain
+     * @return the estimated memory of each state kept by a search
+     */
+    private static long stateBytes(Domain domain) {
+        return STATE_BYTES + 2L * (domain.getBlockCount() + 1);
+    }
+    
+    /**
+     * Builds the stop condition of the searches that do not run in this 
+     * class. It applies the same limits as solve(), and also calls the 
+     * listener's searchProgress() every progressInterval expanded states
+     * @param deadline System.nanoTime() at which to give up, 0 for no limit
+     * @param stateBytes estimated memory of each kept state
+     * @return the stop condition, to be checked on the thread running this
+     * engine's search
+     */
+    private StopCondition stopCondition(final long deadline, final long stateBytes) {
+        return new StopCondition() {
+            long nextProgress = progressInterval;   //Expanded states at the next progress call
+            
+            @Override
+            public SolveResult.Outcome check(SearchStatistics stats, long keptStates) {
+                if (activeListener != null && stats.expanded >= nextProgress) {
+                    stats.elapsedNanos = System.nanoTime() - stats.startNanos;
+                    activeListener.searchProgress(ResolutionEngine.this, stats);
+                    nextProgress = stats.expanded + progressInterval;
+                }
+                return checkLimits(deadline, keptStates * stateBytes);
+            }
+        };
+    }
+    
+    /**
+     * @return the interchangeable locations of the goal world, or null if 
+     * symmetry pruning is off
+     */
+    private LocationSymmetry locationSymmetry() {
+        return symmetryPruning ? new LocationSymmetry(goalWorld) : null;
+    }
+    
+    /**
+     * @return true if the searches should use Moves: they are selected and 
+     * the goal world does not hold a block, which moves can never reach
+     */
+    private boolean useMacroMoves() {
+        if (!macroMoves) {
+            return false;
+        }
+        for (Predicate p : goalWorld) {
+            if (p.getName().equals(Predicate.HOLDING)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return the selected heuristic, or MisplacedBlocksHeuristic if the 
+     * strategy needs an admissible heuristic and the selected one is not.
+     * MisplacedBlocksHeuristic is also consistent (its estimate drops by at 
+     * most the cost of an action), so no world has to be evaluated twice
+     */
+    private Heuristic heuristicForStrategy() {
+        if (strategy.needsAdmissibleHeuristic() && !heuristic.isAdmissible()) {
+            return new MisplacedBlocksHeuristic();
+        }
+        return heuristic;
+    }
+    
+    /**
+     * Finds a shortest path from the initial world to the goal world using 
+     * iterative deepening A* (see IDAStarSearch). This is much slower than 
+     * solve(), but the path it finds is optimal, and it only keeps the states
+     * on the current path in memory, so it can be used on problems where the
+     * original A* method runs out of memory.
+     * The selected heuristic is used if it is admissible, otherwise 
+     * DeadlockHeuristic is used instead.
+     * The time, expansion and memory limits, cancel() and the listener apply
+     * as they do to solve(), and getOutcome() says how the search ended.
+     * @return An ArrayList of States which define a shortest path from the 
+     * initial world to the goal world, empty if none was found
+     */
+    public ArrayList<State> solveIDAStar() {
+        startStatistics();
+        boolean solved = false;
+        outcome = SolveResult.Outcome.FAILED;           //Unless the search returns
+        try {
+            Domain domain = domain();
+            if (!haveSameBlocks(domain)) {
+                outcome = SolveResult.Outcome.UNSOLVABLE;
+                return new ArrayList<>();
+            }
+            Zobrist zobrist = new Zobrist(domain);
+            PackedWorld goalPacked = PackedWorld.pack(domain, goalWorld);
+
+            State initState = new State(PackedWorld.pack(domain, initialWorld), null, null, 0, 0);
+            initState.setFingerprint(zobrist.fingerprint(initialWorld));
+
+            Heuristic admissible = heuristic.isAdmissible() ? heuristic : new DeadlockHeuristic();
+            IDAStarSearch search = new IDAStarSearch(admissible.forGoal(goalPacked), zobrist, goalPacked, zobrist.fingerprint(goalWorld));
+            search.setSymmetry(locationSymmetry());
+            search.setMacroMoves(useMacroMoves());
+            search.setStatistics(statistics);
+            search.setStopCondition(stopCondition(deadline(), stateBytes(domain)));
+            State finalState = search.solve(initState);
+            solved = finalState != null;
+            if (solved) {
+                reportSolution();
+            }
+            outcome = search.getOutcome();
+            return buildStateList(finalState);
+        } finally {
+            finishStatistics(solved);
+        }
+    }
+    
+    /**
+     * Runs a best first search on several threads at once (see 
+     * ParallelSearch). Each thread keeps the states of its own share of the
+     * worlds, so large problems can use every core of the machine.
+     * The strategy and heuristic are chosen as for solve(), and give the same
+     * guarantee on the length of the path: with ASTAR and WEIGHTED_ASTAR the
+     * search goes on after the first path is found, until no shorter one can
+     * be found. SearchStrategy.ANYTIME is not supported.
+     * The time, expansion and memory limits, cancel() and the listener apply
+     * as they do to solve(), checked every ParallelSearch.CHECK_MILLIS 
+     * milliseconds by the calling thread, and getOutcome() says how the 
+     * search ended. If the calling thread is interrupted, the search stops 
+     * and getOutcome() is CANCELLED.
+     * @param threadCount number of search threads, at least 1
+     * @return An ArrayList of States which define a path from the initial world
+     * to the goal world, empty if none was found
+     * @throws IllegalArgumentException if threadCount is less than 1
+     * @throws IllegalStateException if the strategy is ANYTIME
+     */
+    public ArrayList<State> solveParallel(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("solveParallel() needs at least 1 thread, got " + threadCount);
+        }
+        if (strategy == SearchStrategy.ANYTIME) {
+            throw new IllegalStateException("solveParallel() does not support " + strategy);
+        }
+        startStatistics();
+        boolean solved = false;
+        outcome = SolveResult.Outcome.FAILED;           //Unless the search returns
+        try {
+            Domain domain = domain();
+            if (!haveSameBlocks(domain)) {
+                outcome = SolveResult.Outcome.UNSOLVABLE;
+                return new ArrayList<>();
+            }
+            Zobrist zobrist = new Zobrist(domain);
+            PackedWorld goalPacked = PackedWorld.pack(domain, goalWorld);
+
+            Heuristic distanceToGoalWorld = heuristicForStrategy().forGoal(goalPacked);
+            PackedWorld initPacked = PackedWorld.pack(domain, initialWorld);
+
+            State initState = new State(initPacked, null, null, 0, distanceToGoalWorld.estimate(initPacked));
+            initState.setFingerprint(zobrist.fingerprint(initialWorld));
+
+            ParallelSearch search = new ParallelSearch(distanceToGoalWorld, zobrist, goalPacked, zobrist.fingerprint(goalWorld), threadCount);
+            search.setStrategy(strategy, weight);
+            search.setSymmetry(locationSymmetry());
+            search.setMacroMoves(useMacroMoves());
+            search.setStatistics(statistics);
+            search.setStopCondition(stopCondition(deadline(), stateBytes(domain)));
+            State finalState = search.solve(initState);
+            solved = finalState != null;
+            if (solved) {
+                reportSolution();
+            }
+            outcome = search.getOutcome();
+            return buildStateList(finalState);
+        } finally {
+            finishStatistics(solved);
+        }
+    }
+    
+    /**
+     * Searches from the initial world and from the goal world at the same 
+     * time until the two searches meet (see BidirectionalSearch). Like 
+     * solve(), the path found is not necessarily the shortest, but long paths
+     * are found while evaluating far fewer states.
+     * The time, expansion and memory limits, cancel() and the listener apply
+     * as they do to solve(), and getOutcome() says how the search ended.
+     * @return An ArrayList of States which define a path from the initial world
+     * to the goal world, empty if none was found
+     */
+    public ArrayList<State> solveBidirectional() {
+        startStatistics();
+        boolean solved = false;
+        outcome = SolveResult.Outcome.FAILED;           //Unless the search returns
+        try {
+            Domain domain = domain();
+            if (!haveSameBlocks(domain)) {
+                outcome = SolveResult.Outcome.UNSOLVABLE;
+                return new ArrayList<>();
+            }
+            Zobrist zobrist = new Zobrist(domain);
+
+            BidirectionalSearch search = new BidirectionalSearch(heuristic, zobrist, domain, initialWorld, goalWorld);
+            search.setStatistics(statistics);
+            search.setStopCondition(stopCondition(deadline(), stateBytes(domain)));
+            State finalState = search.solve();
+            solved = finalState != null;
+            if (solved) {
+                reportSolution();
+            }
+            outcome = search.getOutcome();
+            return buildStateList(finalState);
+        } finally {
+            finishStatistics(solved);
         }
-        
-        //Build the list of states from the initial state to the final state
-        stateList = buildStateList(finalState);        
-        return stateList;
     }
     
     /**
      * Heuristic function for solving algorithm. Returns the number of 
      * predicates in the given world description that is not in the target world 
-     * description.
+     * description. PredicateCountHeuristic uses the same count.
      * Lower is better.
      * @param current
      * @param goal
      * @return 
      */
     public int calcDistanceToGoal(ArrayList<Predicate> current, ArrayList<Predicate> goal) {
+        HashSet<Predicate> goalLookup = new HashSet<>(goal);
         int predCount = 0; //Number of predicates in current that are not in goal
         for (Predicate currP : current) {
-            if (!goal.contains(currP)) 
+            if (!goalLookup.contains(currP)) 
                 predCount++;
         }             
         return predCount;
@@ -172,6 +916,15 @@ public class ResolutionEngine {
         return equal;
     }
     
+    /**
+     * Prints that a solution was found, unless the engine is not verbose
+     */
+    private void reportSolution() {
+        if (verbose) {
+            System.out.println("Solution found!\n");
+        }
+    }
+    
     /**
      * Builds a list of State objects from the start State (i.e. the ancestor 
      * state that has no parent) to the provided State
@@ -204,6 +957,9 @@ public class ResolutionEngine {
         }
         stateList.removeAll(removals);
         
+        for (State s : stateList) {
+            s.setPredicate(s.getPredicate());   //Give the returned states their full list of predicates
+        }
         return stateList;
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package ai_final;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * This class measures how the solver scales with the size of the problem. It
+ * solves random problems (see ProblemGenerator) for every combination of a 
+ * list of block counts and a list of location counts, and writes one CSV line
+ * per problem: its size, whether it was solved, the length of the path, the 
+ * time taken, the counters of the search (see SearchStatistics) and the peak
+ * heap use. Problems are the same for the same seed, so results of different
+ * versions of the solver can be compared line by line.
+ *
+ * Each problem gets the time limit given with --time-limit. Once every
+ * problem of a size runs out of time, larger block counts are skipped for
+ * that location count.
+ *
+ * Run with:
+ * <pre>
+ * java -cp AI_Final.jar ai_final.ScalingBenchmark --blocks=4,6,8,10 --locations=3,4,6
+ *      --instances=5 --seed=1 --strategy=greedy --time-limit=10000 --out=scaling.csv
+ * </pre>
+ * Every option is optional; --moves searches with macro moves.
+ * @author Ryan Nichols
+ */
+public class ScalingBenchmark {
+    final static String HEADER = "blocks,locations,instance,seed,strategy,solved,outcome,plan_length,time_ms,"
+                               + "expanded,generated,duplicates,heuristic_evaluations,expanded_per_sec,peak_frontier,closed_size,peak_heap_mb";
+
+    /**
+     * @param args see the class comment
+     * @throws FileNotFoundException if the output file cannot be created
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        int[] blockCounts = counts(AI_Final.option(args, "--blocks="), "4,6,8,10");
+        int[] locationCounts = counts(AI_Final.option(args, "--locations="), "3,4");
+        int instances = Integer.parseInt(value(AI_Final.option(args, "--instances="), "5"));
+        long seed = Long.parseLong(value(AI_Final.option(args, "--seed="), "1"));
+        String out = AI_Final.option(args, "--out=");
+
+        ResolutionEngine settings = new ResolutionEngine();
+        settings.setVerbose(false);
+        settings.setStrategy(SearchStrategy.parse(value(AI_Final.option(args, "--strategy="), "greedy")));
+        settings.setTimeLimit(Long.parseLong(value(AI_Final.option(args, "--time-limit="), "10000")));
+        for (String arg : args) {
+            if (arg.equals("--moves")) {
+                settings.setMacroMoves(true);
+            }
+        }
+
+        try (PrintStream csv = out == null ? new PrintStream(System.out, true) : new PrintStream(out)) {
+            csv.println(HEADER);
+            for (int locationCount : locationCounts) {
+                for (int blockCount : blockCounts) {
+                    ProblemGenerator generator = new ProblemGenerator(seed + 31L * blockCount + locationCount);
+                    int solved = 0;
+                    for (int i = 1; i <= instances; i++) {
+                        Problem problem = generator.next(blockCount, locationCount);
+                        if (run(settings, problem, csv, blockCount, locationCount, i, seed)) {
+                            solved++;
+                        }
+                    }
+                    if (solved == 0) {
+                        break;                                  //Larger problems will not be solved either
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves one problem and writes its CSV line
+     * @param settings
+     * @param problem
+     * @param csv
+     * @param blockCount
+     * @param locationCount
+     * @param instance number of the problem among those of its size
+     * @param seed
+     * @return true if the problem was solved
+     */
+    static boolean run(ResolutionEngine settings, Problem problem, PrintStream csv, int blockCount, int locationCount, int instance, long seed) {
+        ResolutionEngine engine = new ResolutionEngine(settings, problem.getInitialWorld(), problem.getGoalWorld());
+        System.gc();
+        resetPeakHeap();
+        SolveResult result = engine.solveWithResult();
+        long peakHeap = peakHeap();
+
+        ArrayList<State> states = result.getStates();
+        SearchStatistics statistics = result.getStatistics();
+        boolean solved = result.isSolved();
+        csv.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%s,%b,%s,%d,%.3f,%d,%d,%d,%d,%.0f,%d,%d,%.1f",
+                blockCount, locationCount, instance, seed, engine.getStrategy(), solved, result.getOutcome(),
+                solved ? states.get(states.size() - 1).getGn() : -1,
+                statistics.getElapsedNanos() / 1e6, statistics.getExpanded(), statistics.getGenerated(),
+                statistics.getDuplicates(), statistics.getHeuristicEvaluations(), statistics.getExpandedPerSecond(),
+                statistics.getPeakFrontier(), statistics.getClosedSize(), peakHeap / (1024.0 * 1024.0)));
+        return solved;
+    }
+
+
+    /*****************************************************
+     *                 Utility Methods                   *
+     *****************************************************/
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the peak use of each heap memory pool since the last
+     * reset, in bytes. The pools do not all peak at the same time, so this is
+     * an upper bound of the peak heap use
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * @param list for example "4,6,8"
+     * @param defaultList used if list is null
+     * @return the numbers of the list
+     */
+    private static int[] counts(String list, String defaultList) {
+        String[] items = value(list, defaultList).split(",");
+        int[] numbers = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            numbers[i] = Integer.parseInt(items[i].trim());
+        }
+        return numbers;
+    }
+
+    private static String value(String option, String defaultValue) {
+        return option == null ? defaultValue : option;
+    }
+}
@@ -0,0 +1,34 @@
+package ai_final;
+
+/**
+ * Receives the progress of ResolutionEngine.solve() (see 
+ * ResolutionEngine.setSearchListener()), for example to log it or to expose
+ * it as metrics (see PlannerMetrics). The methods are called on the thread 
+ * running the search, so they should return quickly. The same listener may 
+ * be used by engines running on several threads at once.
+ * @author Ryan Nichols
+ */
+public interface SearchListener {
+
+    /**
+     * Called when a search starts
+     * @param engine the engine searching
+     */
+    void searchStarted(ResolutionEngine engine);
+
+    /**
+     * Called every ResolutionEngine.getProgressInterval() expanded states
+     * @param engine the engine searching
+     * @param statistics the counters so far. They keep changing after this
+     * method returns
+     */
+    void searchProgress(ResolutionEngine engine, SearchStatistics statistics);
+
+    /**
+     * Called when a search ends, whether or not it found a path
+     * @param engine the engine that searched
+     * @param statistics the final counters of the search
+     * @param solved true if a path was found
+     */
+    void searchFinished(ResolutionEngine engine, SearchStatistics statistics, boolean solved);
+}
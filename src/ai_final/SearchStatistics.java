@@ -0,0 +1,154 @@
+package ai_final;
+
+/**
+ * This class holds the counters of one call to ResolutionEngine.solve(): how
+ * many states were expanded and generated, how many successors were thrown 
+ * away as duplicates, how many times the heuristic was evaluated, the largest
+ * number of states queued and evaluated at once, and how long the search 
+ * took. They show how much work a problem needs, independently of the speed
+ * of the machine.
+ *
+ * The time spent generating successors and checking them for duplicates is
+ * only measured when the engine has a SearchListener, since it reads the 
+ * clock twice for each successor. The counters are updated by the search 
+ * thread only; a listener sees them as they were when it was called.
+ * @author Ryan Nichols
+ */
+public class SearchStatistics {
+    long expanded;              //States whose successors were generated
+    long generated;             //Successors generated, including duplicates
+    long duplicates;            //Successors and queued states thrown away because their world was already reached
+    long heuristicEvaluations;  //Calls to the heuristic
+    int peakFrontier;           //Largest number of states in the open list at once
+    int closedSize;             //Largest number of evaluated states kept at once
+    int frontier;               //Number of states in the open list at the last progress call
+    int bestHn = Integer.MAX_VALUE; //Lowest h of the states expanded so far with an empty hand, the h of the partial plan
+    long successorNanos;        //Time spent generating successors, if measured
+    long duplicateCheckNanos;   //Time spent looking successors up in the open and closed lists, if measured
+    long startNanos;            //System.nanoTime() when the search started
+    long elapsedNanos;          //Time taken by the search, so far while it runs
+
+    public SearchStatistics() {
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Records the sizes of the open and closed lists, keeping the largest
+     * @param frontier number of states in the open list
+     * @param closed number of states in the closed list
+     */
+    void updateSizes(int frontier, int closed) {
+        if (frontier > peakFrontier) {
+            peakFrontier = frontier;
+        }
+        if (closed > closedSize) {
+            closedSize = closed;
+        }
+    }
+
+
+    /**
+     * @return a copy of these counters, which does not change as the search
+     * goes on
+     */
+    SearchStatistics snapshot() {
+        SearchStatistics copy = new SearchStatistics();
+        copy.expanded = expanded;
+        copy.generated = generated;
+        copy.duplicates = duplicates;
+        copy.heuristicEvaluations = heuristicEvaluations;
+        copy.peakFrontier = peakFrontier;
+        copy.closedSize = closedSize;
+        copy.frontier = frontier;
+        copy.bestHn = bestHn;
+        copy.successorNanos = successorNanos;
+        copy.duplicateCheckNanos = duplicateCheckNanos;
+        copy.startNanos = startNanos;
+        copy.elapsedNanos = elapsedNanos;
+        return copy;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getHeuristicEvaluations() {
+        return heuristicEvaluations;
+    }
+
+    public int getPeakFrontier() {
+        return peakFrontier;
+    }
+
+    public int getClosedSize() {
+        return closedSize;
+    }
+
+    /**
+     * @return the number of states in the open list when the listener's 
+     * searchProgress() was last called
+     */
+    public int getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * @return the lowest estimated distance to the goal of the states 
+     * expanded so far that do not hold a block, Integer.MAX_VALUE if none 
+     * were. This is the h of the last state of the partial plan
+     */
+    public int getBestHn() {
+        return bestHn;
+    }
+
+    /**
+     * @return the time spent generating successors, in nanoseconds, or 0 if
+     * it was not measured
+     */
+    public long getSuccessorNanos() {
+        return successorNanos;
+    }
+
+    /**
+     * @return the time spent checking successors for duplicates, in 
+     * nanoseconds, or 0 if it was not measured
+     */
+    public long getDuplicateCheckNanos() {
+        return duplicateCheckNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of states expanded per second, 0 if no time was 
+     * measured
+     */
+    public double getExpandedPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : expanded * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStatistics[expanded=" + expanded + ", generated=" + generated
+                + ", duplicates=" + duplicates + ", heuristicEvaluations=" + heuristicEvaluations
+                + ", peakFrontier=" + peakFrontier + ", closedSize=" + closedSize
+                + ", ms=" + elapsedNanos / 1000000.0 + "]";
+    }
+}
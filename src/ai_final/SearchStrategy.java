@@ -0,0 +1,115 @@
+package ai_final;
+
+import java.util.Comparator;
+
+/**
+ * This enum lists the ways ResolutionEngine.solve() can order the states it
+ * has not evaluated yet, trading the time taken to find a path against its
+ * length. It replaces editing State.calcFn() and recompiling.
+ * @author Ryan Nichols
+ */
+public enum SearchStrategy {
+    /**
+     * Evaluates the state closest to the goal first (f = h). Finds an answer
+     * as quickly as possible, but the path can be far from the shortest. This
+     * is the default, and was the only behaviour before strategies existed.
+     */
+    GREEDY,
+    /**
+     * Traditional A* (f = g + h). Finds the shortest path when the heuristic
+     * is consistent (h never drops by more than the cost of an action), but
+     * is infeasible on large problems. A heuristic that is admissible but not
+     * consistent still gives the shortest path, because worlds reached again
+     * by a shorter path are evaluated again, at the cost of extra evaluations.
+     */
+    ASTAR,
+    /**
+     * Weighted A* (f = g + w * h). With a consistent heuristic, the path found
+     * is at most w times longer than the shortest one, and larger weights 
+     * find it faster. Like ASTAR, an admissible heuristic that is not 
+     * consistent keeps the bound by evaluating some worlds again.
+     */
+    WEIGHTED_ASTAR,
+    /**
+     * Anytime search (ARA*): finds a first path with GREEDY, then runs 
+     * weighted A* with a decreasing weight until the weight reaches 1 or the
+     * time budget runs out. Every shorter path found is reported to the 
+     * engine's PlanListener.
+     */
+    ANYTIME;
+
+    /**
+     * Parses a strategy name, ignoring case and accepting '-' for '_'
+     * @param name for example "astar" or "weighted-astar"
+     * @return the strategy
+     * @throws IllegalArgumentException if the name is not a strategy
+     */
+    public static SearchStrategy parse(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+
+    /**
+     * @return true if this strategy needs an admissible heuristic to give
+     * any guarantee on the length of the path
+     */
+    public boolean needsAdmissibleHeuristic() {
+        return this != GREEDY;
+    }
+
+    /**
+     * Creates an empty open list that gives states in this strategy's order.
+     * GREEDY and ASTAR order states by an integer, so they use buckets 
+     * instead of a heap.
+     * @param weight weight of h, only used by WEIGHTED_ASTAR and ANYTIME
+     * @return the open list
+     */
+    public OpenList openList(double weight) {
+        switch (this) {
+            case GREEDY:
+                return new BucketOpenList(false);
+            case ASTAR:
+                return new BucketOpenList(true);
+            default:
+                return new IndexedOpenList(comparator(weight));
+        }
+    }
+
+    /**
+     * Returns the order in which this strategy evaluates states
+     * @param weight weight of h, only used by WEIGHTED_ASTAR and ANYTIME
+     * @return comparator putting the state to evaluate first at the front,
+     * states with equal f are ordered by h
+     */
+    public Comparator<State> comparator(double weight) {
+        switch (this) {
+            case GREEDY:
+                return new PriorityComparator(0, 1);
+            case ASTAR:
+                return new PriorityComparator(1, 1);
+            default:
+                return new PriorityComparator(1, weight);
+        }
+    }
+
+    /**
+     * Orders states by f = gWeight * g + hWeight * h, then by h
+     */
+    static class PriorityComparator implements Comparator<State> {
+        double gWeight;
+        double hWeight;
+
+        PriorityComparator(double gWeight, double hWeight) {
+            this.gWeight = gWeight;
+            this.hWeight = hWeight;
+        }
+
+        @Override
+        public int compare(State a, State b) {
+            int result = Double.compare(gWeight * a.getGn() + hWeight * a.getHn(), gWeight * b.getGn() + hWeight * b.getHn());
+            if (result == 0) {
+                result = Integer.compare(a.getHn(), b.getHn());
+            }
+            return result;
+        }
+    }
+}
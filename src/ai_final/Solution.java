@@ -0,0 +1,63 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This class holds the result of solving one Problem with BatchSolver: the
+ * list of states returned by ResolutionEngine.solve(), how the search ended, 
+ * the time it took, and the exception thrown by the engine if it failed.
+ * @author Ryan Nichols
+ */
+public class Solution {
+    Problem problem;
+    ArrayList<State> states;    //Path from the initial world to the goal world, empty if none was found
+    SolveResult.Outcome outcome;//How the search ended, FAILED if the engine threw
+    long elapsedNanos;          //Time spent solving
+    RuntimeException failure;   //Exception thrown by the engine, null if it did not fail
+
+    /**
+     * @param problem
+     * @param states
+     * @param outcome
+     * @param elapsedNanos
+     * @param failure
+     */
+    public Solution(Problem problem, ArrayList<State> states, SolveResult.Outcome outcome, long elapsedNanos, RuntimeException failure) {
+        this.problem = problem;
+        this.states = states;
+        this.outcome = outcome;
+        this.elapsedNanos = elapsedNanos;
+        this.failure = failure;
+    }
+
+    /**
+     * @return true if a path to the goal world was found
+     */
+    public boolean isSolved() {
+        return failure == null && !states.isEmpty();
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public Problem getProblem() {
+        return problem;
+    }
+
+    public ArrayList<State> getStates() {
+        return states;
+    }
+
+    public SolveResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public RuntimeException getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,290 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class remembers the paths found by ResolutionEngine.solve(), so that
+ * solving the same problem again, or the same problem with the blocks renamed,
+ * does not search again.
+ *
+ * Problems are stored under a canonical key. The blocks are numbered in the
+ * order they are found in the initial world: location by location (in order
+ * of location name), bottom block first, then the held block. Since every
+ * block has its own position in the initial world, this numbering does not
+ * depend on the block names, and two problems have the same key exactly when
+ * one is the other with its blocks renamed. The key holds the height of each
+ * stack of the initial world and, for each numbered block, what it sits on in
+ * the goal world. It also holds the strategy, heuristic, symmetry 
+ * pruning and macro move settings of the engine, since they change the path 
+ * found.
+ *
+ * Paths are stored as actions on numbered blocks, and turned back into the
+ * caller's blocks by replaying them from the caller's initial world. When the
+ * cache is full, the least recently used path is evicted.
+ * @author Ryan Nichols
+ */
+public class SolutionCache {
+    LinkedHashMap<String, CachedAction[]> plans;    //Paths by canonical key, least recently used first
+    int capacity;                                   //Maximum number of paths kept
+    long hits;
+    long misses;
+    long evictions;
+
+    /**
+     * @param capacity maximum number of paths kept
+     */
+    public SolutionCache(int capacity) {
+        this.capacity = capacity;
+        this.plans = new LinkedHashMap<String, CachedAction[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAction[]> eldest) {
+                if (size() > SolutionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Solves the engine's problem, using a cached path if the same problem
+     * (up to block names) was solved before with the same settings
+     * @param engine engine holding the problem and the settings
+     * @return the result of engine.solveWithResult(), or a SOLVED result 
+     * rebuilt from the cached path, with counters of zero since there was no
+     * search. The engine's getOutcome() and getStatistics() agree with it
+     */
+    public SolveResult solve(ResolutionEngine engine) {
+        Canonical canonical = canonicalize(engine);
+        if (canonical == null) {                //The worlds do not have the same blocks, not worth caching
+            return engine.solveWithResult();
+        }
+
+        CachedAction[] plan;
+        synchronized (this) {
+            plan = plans.get(canonical.key);
+            if (plan != null) {
+                hits++;
+            }
+            else {
+                misses++;
+            }
+        }
+        if (plan != null) {
+            return engine.cachedResult(replay(engine, canonical, plan));
+        }
+
+        SolveResult result = engine.solveWithResult();
+        if (result.isSolved()) {
+            ArrayList<State> states = result.getStates();
+            plan = store(canonical, states.get(states.size() - 1));
+            synchronized (this) {
+                plans.put(canonical.key, plan);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Numbers the blocks of the engine's problem and builds its key
+     * @param engine
+     * @return the numbering and key, or null if the two worlds do not have
+     * the same blocks
+     */
+    private Canonical canonicalize(ResolutionEngine engine) {
+        final Domain domain = engine.domain();
+        ArrayList<Predicate> initialWorld = engine.getInitialWorld();       //Now the domain's predicates
+        ArrayList<Predicate> goalWorld = engine.getGoalWorld();
+        if (!PackedWorld.places(domain, initialWorld) || !PackedWorld.places(domain, goalWorld)) {
+            return null;
+        }
+        PackedWorld initial = PackedWorld.pack(domain, initialWorld);
+        PackedWorld goal = PackedWorld.pack(domain, goalWorld);
+        int blockCount = domain.getBlockCount();
+        int[] above = initial.aboveBlocks();
+
+        Integer[] locations = new Integer[domain.getLocationCount()];
+        for (int l = 0; l < locations.length; l++) {
+            locations[l] = l;
+        }
+        Arrays.sort(locations, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return domain.getLocation(a).getName().compareTo(domain.getLocation(b).getName());
+            }
+        });
+
+        StringBuilder key = new StringBuilder();
+        key.append(engine.getStrategy()).append(' ').append(engine.getWeight()).append(' ')
+           .append(engine.getHeuristic().getClass().getName()).append(' ')
+           .append(engine.isSymmetryPruning()).append(' ').append(engine.isMacroMoves()).append(" |");
+
+        //Number the blocks of the initial world, stack by stack
+        int[] labelOf = new int[blockCount];                //Number of each block, by domain index
+        Arrays.fill(labelOf, -1);
+        int[] blockOf = new int[blockCount];                //Domain index of each numbered block
+        int count = 0;
+        for (int l : locations) {
+            int height = 0;
+            for (int b = 0; b < blockCount; b++) {
+                if (initial.getSupport(b) == PackedWorld.onLocation(l)) {
+                    for (int block = b; block >= 0; block = above[block]) {
+                        labelOf[block] = count;
+                        blockOf[count++] = block;
+                        height++;
+                    }
+                }
+            }
+            key.append(' ').append(domain.getLocation(l).getName()).append('=').append(height);
+        }
+        for (int b = 0; b < blockCount; b++) {
+            if (initial.getSupport(b) == PackedWorld.HELD) {
+                labelOf[b] = count;
+                blockOf[count++] = b;
+                key.append(" held");
+            }
+        }
+        if (count < blockCount) {
+            return null;
+        }
+
+        //Describe the goal world with the numbers
+        key.append(" ;");
+        for (int i = 0; i < blockCount; i++) {
+            short support = goal.getSupport(blockOf[i]);
+            key.append(' ');
+            if (support == PackedWorld.HELD) {
+                key.append("held");
+            }
+            else if (support < 0) {
+                key.append(domain.getLocation(PackedWorld.locationOf(support)).getName());
+            }
+            else {
+                key.append(labelOf[support]);
+            }
+        }
+
+        Canonical canonical = new Canonical();
+        canonical.key = key.toString();
+        canonical.blocks = new Block[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            canonical.blocks[i] = domain.getBlock(blockOf[i]);
+        }
+        canonical.domain = domain;
+        canonical.labelOf = labelOf;
+        return canonical;
+    }
+
+    /**
+     * Converts a path to actions on numbered blocks
+     * @param canonical numbering of the problem's blocks
+     * @param finalState last state of the path
+     * @return the actions of the path, in order
+     */
+    private CachedAction[] store(Canonical canonical, State finalState) {
+        ArrayList<CachedAction> actions = new ArrayList<>();
+        for (State s = finalState; s.getParent() != null; s = s.getParent()) {
+            ArrayList<Action> single = s.getAction().toActions();          //The actions of a Move
+            for (int i = single.size() - 1; i >= 0; i--) {
+                Action action = single.get(i);
+                CachedAction cached = new CachedAction();
+                cached.name = action.getName();
+                cached.block1 = canonical.labelOf[canonical.domain.indexOf(action.getBlock1())];
+                cached.block2 = action.getBlock2() == null ? -1 : canonical.labelOf[canonical.domain.indexOf(action.getBlock2())];
+                cached.location = action.getLocation();
+                actions.add(0, cached);
+            }
+        }
+        return actions.toArray(new CachedAction[actions.size()]);
+    }
+
+    /**
+     * Rebuilds the list of states of a cached path for the engine's problem
+     * @param engine
+     * @param canonical numbering of the engine's blocks
+     * @param plan
+     * @return the list of states, like the one returned by engine.solve()
+     */
+    private ArrayList<State> replay(ResolutionEngine engine, Canonical canonical, CachedAction[] plan) {
+        State current = new State(engine.getInitialWorld(), null, null, 0, 0);
+        for (CachedAction cached : plan) {
+            Block block1 = canonical.blocks[cached.block1];
+            Action action = cached.block2 < 0
+                    ? new Action(cached.name, block1, cached.location)
+                    : new Action(cached.name, block1, canonical.blocks[cached.block2]);
+            current = new State(action.applyAction(current.getPredicate()), action, current, current.getGn() + 1, 0);
+        }
+        return engine.buildStateList(current);
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the fraction of lookups that found a path, 0 if there were none
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SolutionCache[size=" + plans.size() + "/" + capacity + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+
+
+    /*****************************************************
+     *                  Helper Classes                   *
+     *****************************************************/
+    /**
+     * Canonical numbering of the blocks of a problem, and its key
+     */
+    static class Canonical {
+        String key;
+        Block[] blocks;     //Block with each number
+        Domain domain;
+        int[] labelOf;      //Number of each block, by domain index
+    }
+
+    /**
+     * An action on numbered blocks
+     */
+    static class CachedAction {
+        String name;
+        int block1;
+        int block2;         //-1 for PICKUP and PUTDOWN
+        Location location;  //null for UNSTACK and STACK
+    }
+}
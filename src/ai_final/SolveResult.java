@@ -0,0 +1,106 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This class holds the result of ResolutionEngine.solveWithResult(): how the
+ * search ended, the path to the goal world if one was found, and otherwise 
+ * the best partial path, which leads to the state closest to the goal world 
+ * (lowest h) that the search reached without holding a block (see 
+ * SearchStatistics.getBestHn()). A partial path can be followed to make
+ * progress while the rest of the problem is solved again, or with a larger 
+ * budget.
+ * @author Ryan Nichols
+ */
+public class SolveResult {
+    Outcome outcome;
+    ArrayList<State> states;        //Path from the initial world to the goal world, empty if none was found
+    ArrayList<State> partialPlan;   //Path to the state with the lowest h reached, the same as states if solved
+    SearchStatistics statistics;
+
+    /**
+     * The ways a search can end
+     */
+    public enum Outcome {
+        /**
+         * A path to the goal world was found
+         */
+        SOLVED,
+        /**
+         * The search ran out of time, expanded states or memory (see 
+         * ResolutionEngine.setTimeLimit(), setExpansionLimit() and 
+         * setHeapLimit()) before it found a path
+         */
+        BUDGET_EXCEEDED,
+        /**
+         * The search was stopped by ResolutionEngine.cancel(), or by 
+         * interrupting the thread running it
+         */
+        CANCELLED,
+        /**
+         * Every world that can be reached was evaluated without reaching the
+         * goal world, so there is no path
+         */
+        UNSOLVABLE,
+        /**
+         * The search threw an exception or an error, such as an 
+         * OutOfMemoryError, which is passed on to the caller
+         */
+        FAILED
+    }
+
+    /**
+     * @param outcome
+     * @param states
+     * @param partialPlan
+     * @param statistics
+     */
+    public SolveResult(Outcome outcome, ArrayList<State> states, ArrayList<State> partialPlan, SearchStatistics statistics) {
+        this.outcome = outcome;
+        this.states = states;
+        this.partialPlan = partialPlan;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return true if a path to the goal world was found
+     */
+    public boolean isSolved() {
+        return outcome == Outcome.SOLVED;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return the path to the goal world, as returned by 
+     * ResolutionEngine.solve(), or an empty list if none was found
+     */
+    public ArrayList<State> getStates() {
+        return states;
+    }
+
+    /**
+     * @return the path from the initial world to the state with the lowest 
+     * estimated distance to the goal world that was reached, or the path to 
+     * the goal world if it was found
+     */
+    public ArrayList<State> getPartialPlan() {
+        return partialPlan;
+    }
+
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public String toString() {
+        return "SolveResult[" + outcome + ", states=" + states.size() + ", partialPlan=" + partialPlan.size()
+                + ", expanded=" + statistics.getExpanded() + "]";
+    }
+}
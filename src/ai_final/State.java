@@ -1,6 +1,10 @@
 package ai_final;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Stack;
 
 /**
@@ -10,6 +14,11 @@ import java.util.Stack;
  * 3) the action that was applied to the parent state to obtain this state
  * 4) the cost of reaching this state from the initial state (used for A*)
  * 5) the estimated cheapest cost of reaching the goal state from this state
+ * 6) the Zobrist fingerprint of the world, used to detect duplicate states
+ * 
+ * The world may be held as a list of predicates, as a PackedWorld, or both. 
+ * A state that only holds its PackedWorld converts it to a list of predicates
+ * whenever the list is asked for.
  * @author Ryan Nichols
  */
 public class State implements Comparable {
@@ -18,6 +27,10 @@ public class State implements Comparable {
     State parent;
     int gn; //Cost from start to here
     int hn; //Estimated cheapest cost from here to goal
+    long fingerprint; //Zobrist fingerprint of the world (see Zobrist)
+    PackedWorld packed; //Compact form of the world, may be null
+    WorldIndex index;   //Index of the world, built when first needed
+    int openSlot = -1;  //Slot of this state in an IndexedOpenList heap, -1 if not queued in one
     
 
     /**
@@ -45,17 +58,39 @@ public class State implements Comparable {
         this.gn = gn;
         this.hn = hn;
     }
+
+    /**
+     * Constructor for a state that only holds the packed form of its world
+     * @param packed the packed world of this state
+     * @param action the action applied to obtain this state from its parent
+     * @param parent this states parent
+     * @param gn distance from initial state to this state
+     * @param hn estimated distance from this state to the goal state
+     */
+    public State(PackedWorld packed, Action action, State parent, int gn, int hn) {
+        this((ArrayList<Predicate>) null, action, parent, gn, hn);
+        this.packed = packed;
+    }
    
     
     /****************************************************
     *               Getters and Setters                 *
     *****************************************************/
+    /**
+     * Returns the list of predicates describing the world of this state. If
+     * the state only holds a packed world, a new list is unpacked on each call.
+     * @return 
+     */
     public ArrayList<Predicate> getPredicate() {
+        if (predicate == null && packed != null) {
+            return packed.unpack();
+        }
         return predicate;
     }
 
     public void setPredicate(ArrayList<Predicate> predicate) {
         this.predicate = predicate;
+        this.index = null;
     }
 
     public Action getAction() {
@@ -89,6 +124,22 @@ public class State implements Comparable {
     public void setHn(int hn) {
         this.hn = hn;
     }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public PackedWorld getPacked() {
+        return packed;
+    }
+
+    public void setPacked(PackedWorld packed) {
+        this.packed = packed;
+    }
     
       
     
@@ -104,12 +155,27 @@ public class State implements Comparable {
      * find the optimal path, however it does find an answer many orders of 
      * magnitude faster, which is absolutely necessary for non trivial problems 
      * with more than 7 blocks.
+     * ResolutionEngine.solve() now orders states by its SearchStrategy 
+     * instead, so the method no longer needs editing to switch to A*. It is 
+     * still the natural order of states, used by the other searches.
      */
     public int calcFn() {
         return hn;          //Find an answer as quickly as possible, technically no longer A*
         //return gn + hn;   //Find the answer with the shortest possible path (original A* method)
     }
     
+    /**
+     * Drops the index of this state, and its list of predicates if it also 
+     * holds a packed world, so that the state takes up as little memory as 
+     * possible.
+     */
+    public void compact() {
+        if (packed != null) {
+            predicate = null;
+        }
+        index = null;
+    }
+    
     /**
      * This method generates and returns a list of Action objects that can be
      * validly applied to this state.
@@ -118,75 +184,93 @@ public class State implements Comparable {
      */
     public ArrayList<Action> getPossibleActions() {
         ArrayList<Action> actions = new ArrayList<>();
-        Block holding = null;
-        
-        //Check if there is a block being held
-        for (Predicate p: predicate) { //Scan all predicates
-            if(p.getName().equals(Predicate.HOLDING)) {
-                holding = p.getArgument1();
-            }
-        }
+        WorldIndex worldIndex = getIndex();
+        Block holding = worldIndex.getHeld();   //The block being held, if any
         
         //Pickup
-        if (holding == null) {                              //Can only pick up if not already holding a block
-            for (Predicate p : predicate) {                 //Scan all predicates
-                if(p.getName().equals(Predicate.ONTABLE)) { //If there's an ONTABLE predicate
-                    Block blockOnTable = p.getArgument1();  //Get the block on the table
-                    for(Predicate p2 : predicate) {         //Scan through predicates again
-                        if(p2.getName().equals(Predicate.CLEAR) && p2.getArgument1() != null && p2.getArgument1().equals(blockOnTable)) { //If the block on the table is found to be clear
-                            actions.add(new Action(Action.PICKUP, blockOnTable, p.getLocation()));        //Add pickup block as a possible action
-                            break;
-                        }
-                    }                
+        if (holding == null) {                                      //Can only pick up if not already holding a block
+            for (Block b : worldIndex.getClearBlocks()) {           //Scan the clear blocks
+                Predicate support = worldIndex.getSupport(b);
+                if (support.getName().equals(Predicate.ONTABLE)) {  //If the clear block is on the table
+                    actions.add(new Action(Action.PICKUP, b, support.getLocation()));  //Add pickup block as a possible action
                 }
             }
         }        
         //Putdown
-        if (holding != null) {                              //Can only put down if already holding a block
-            for (Predicate p : predicate) {                 //Scan all predicates
-                if(p.getName().equals(Predicate.CLEARLOC)) {//If there's a clear location
-                    if (p.getLocation() != null) {          //If the location is not null, then it is a clear location
-                        actions.add(new Action(Action.PUTDOWN, holding, p.getLocation()));   //Add putdown block on location as a possible action
-                    }                
-                }
+        if (holding != null) {                                      //Can only put down if already holding a block
+            for (Location l : worldIndex.getClearLocations()) {     //Scan the clear locations
+                actions.add(new Action(Action.PUTDOWN, holding, l));//Add putdown block on location as a possible action
             }
         }        
         //Unstack
-        if (holding == null) {                              //Can only unstack if not already holding a block
-            for (Predicate p : predicate) {                 //Scan all predicates
-                if(p.getName().equals(Predicate.ON)) {      //If there's an ON predicate
-                    Block topBlock = p.getArgument1();      //Get the block on top
-                    Block bottomBlock = p.getArgument2();   //Get the block on bottom
-                    for(Predicate p2 : predicate) {         //Scan through predicates again
-                        if(p2.getName().equals(Predicate.CLEAR) && p2.getArgument1() != null && p2.getArgument1().equals(topBlock)) {    //If the top block is found to be clear
-                            actions.add(new Action(Action.UNSTACK, topBlock, bottomBlock));              //Add unstack top block as a possible action
-                            break;
-                        }
-                    }                
+        if (holding == null) {                                      //Can only unstack if not already holding a block
+            for (Block b : worldIndex.getClearBlocks()) {           //Scan the clear blocks
+                Predicate support = worldIndex.getSupport(b);
+                if (support.getName().equals(Predicate.ON)) {       //If the clear block is on another block
+                    actions.add(new Action(Action.UNSTACK, b, support.getArgument2()));  //Add unstack top block as a possible action
                 }
             }
         }        
         //Stack
-        if (holding != null) {                              //Can only stack if already holding a block
-            for (Predicate p : predicate) {                 //Scan all predicates
-                if(p.getName().equals(Predicate.CLEAR)) {   //If there's a clear location
-                    if (p.getArgument1() != null) {         //If the argument1 is not null, then it is a clear block
-                        actions.add(new Action(Action.STACK, holding, p.getArgument1()));   //Add putdown held block on clear block as a possible action                       
-                    }                
-                }
+        if (holding != null) {                                      //Can only stack if already holding a block
+            for (Block b : worldIndex.getClearBlocks()) {           //Scan the clear blocks
+                actions.add(new Action(Action.STACK, holding, b));  //Add putdown held block on clear block as a possible action                       
             }
         }
                 
         return actions;
     }
     
+    /**
+     * Returns the successors of this state one at a time, without creating 
+     * their worlds up front. This state must hold a packed world and have its
+     * fingerprint set.
+     * @param zobrist used to work out the fingerprints of the successors
+     * @return an iterator over the successors of this state
+     */
+    public Iterator<Successor> successors(Zobrist zobrist) {
+        return new SuccessorIterator(this, zobrist);
+    }
+    
+    /**
+     * Returns the successors of this state one at a time, skipping putdowns 
+     * that are equivalent because of interchangeable locations
+     * @param zobrist used to work out the fingerprints of the successors
+     * @param symmetry interchangeable locations of the problem, may be null
+     * @return an iterator over the successors of this state
+     */
+    public Iterator<Successor> successors(Zobrist zobrist, LocationSymmetry symmetry) {
+        return new SuccessorIterator(this, zobrist, symmetry);
+    }
     
+    /**
+     * Returns the successors of this state one at a time
+     * @param zobrist used to work out the fingerprints of the successors
+     * @param symmetry interchangeable locations of the problem, may be null
+     * @param macroMoves true for Moves instead of single actions
+     * @return an iterator over the successors of this state
+     */
+    public Iterator<Successor> successors(Zobrist zobrist, LocationSymmetry symmetry, boolean macroMoves) {
+        return new SuccessorIterator(this, zobrist, symmetry, macroMoves);
+    }
+    
+    /**
+     * Returns the index of this state's world, building it the first time it
+     * is needed, from the packed world if the state only holds that.
+     * @return the index of this state's world
+     */
+    public WorldIndex getIndex() {
+        if (index == null) {
+            index = packed != null ? new WorldIndex(packed) : new WorldIndex(getPredicate());
+        }
+        return index;
+    }
     
     /**
      * Simple print method that shows all predicates
      */
     public void print() {
-        for(Predicate p : predicate) {
+        for(Predicate p : getPredicate()) {
             p.print(); 
             System.out.print(" ");
         }
@@ -195,134 +279,62 @@ public class State implements Comparable {
     
     /**
      * Converts the predicate calculus statements of this state to a list of 
-     * four Stacks of Strings (one each for L1, L2, L3, and L4).
-     * @return an ArrayList of four Stacks of Strings
+     * Stacks of Strings, one for each location, in the order of getLocations().
+     * Each stack holds the names of its blocks, bottom first, and is padded 
+     * with "_" to the height of the tallest stack, so popping it gives the 
+     * rows of the location from the top down.
+     * @return an ArrayList of Stacks of Strings, one per location
      */
     public ArrayList<Stack<String>> toStringStacks() {
-        ArrayList<Stack<String>> stacks = new ArrayList<Stack<String>>();
-        Stack<String> L1 = new Stack<>();
-        Stack<String> L2 = new Stack<>();
-        Stack<String> L3 = new Stack<>();
-        Stack<String> L4 = new Stack<>();
-        
-        ArrayList<Predicate> copy = new ArrayList<>(predicate);
-        ArrayList<Predicate> toRemove = new ArrayList<>();
-        
-        //L1 first pass
-        for (Predicate p : copy) {
-            if (p.getLocation() != null) {
-                if (p.getLocation().getName().equals("L1")) {
-                    if(p.getName().equals("CLEARLOC")){            //L1 is clear
-                        for(int i = 0; i < 10; i++){
-                            L1.push("_");                        //Fill stack with 10 empty strings
-                        }                        
-                    }
-                    else if(p.getName().equals("ONTABLE")) {    //A block is on L1
-                        L1.push(p.getArgument1().getName());    //Push the name of the block
-                    }
-                    toRemove.add(p);
-                }
+        HashMap<Location, Block> bottom = new HashMap<>();     //Block on each location
+        HashMap<Block, Block> above = new HashMap<>();          //Block on each block
+        for (Predicate p : getPredicate()) {
+            if (p.getName().equals(Predicate.ONTABLE)) {
+                bottom.put(p.getLocation(), p.getArgument1());
             }
-        }
-        copy.removeAll(toRemove);
-        toRemove.clear();
-        
-        //L2 first pass
-        for (Predicate p : copy) {
-            if (p.getLocation() != null) {
-                if (p.getLocation().getName().equals("L2")) {
-                    if(p.getName().equals("CLEARLOC")){            //L2 is clear
-                        for(int i = 0; i < 10; i++){
-                            L2.push("_");                        //Fill stack with 10 empty strings
-                        }
-                    }
-                    else if(p.getName().equals("ONTABLE")) {    //A block is on L2
-                        L2.push(p.getArgument1().getName());    //Push the name of the block
-                    }
-                    toRemove.add(p);
-                }
+            else if (p.getName().equals(Predicate.ON)) {
+                above.put(p.getArgument2(), p.getArgument1());
             }
         }
-        copy.removeAll(toRemove);
-        toRemove.clear();
         
-        //L3 first pass
-        for (Predicate p : copy) {
-            if (p.getLocation() != null) {
-                if (p.getLocation().getName().equals("L3")) {
-                    if(p.getName().equals("CLEARLOC")){            //L3 is clear
-                        for(int i = 0; i < 10; i++){
-                            L3.push("_");                        //Fill stack with 10 empty strings
-                        }
-                    }
-                    else if(p.getName().equals("ONTABLE")) {    //A block is on L3
-                        L3.push(p.getArgument1().getName());    //Push the name of the block
-                    }
-                    toRemove.add(p);
-                }
+        ArrayList<Stack<String>> stacks = new ArrayList<>();
+        int height = 0;
+        for (Location l : getLocations()) {
+            Stack<String> stack = new Stack<>();
+            for (Block b = bottom.get(l); b != null; b = above.get(b)) {  //Climb the stack
+                stack.push(b.getName());
             }
+            height = Math.max(height, stack.size());
+            stacks.add(stack);
         }
-        copy.removeAll(toRemove);
-        toRemove.clear();
-        
-        //L4 first pass
-        for (Predicate p : copy) {
-            if (p.getLocation() != null) {
-                if (p.getLocation().getName().equals("L4")) {
-                    if(p.getName().equals("CLEARLOC")){            //L4 is clear
-                        for(int i = 0; i < 10; i++){
-                            L4.push("_");                        //Fill stack with 10 empty strings
-                        }
-                    }
-                    else if(p.getName().equals("ONTABLE")) {    //A block is on L4
-                        L4.push(p.getArgument1().getName());    //Push the name of the block
-                    }
-                    toRemove.add(p);
-                }
+        for (Stack<String> stack : stacks) {
+            while (stack.size() < height) {
+                stack.push("_");                                //Fill the rest of the way with empty strings
             }
         }
-        copy.removeAll(toRemove);
-        toRemove.clear();
-        
-        L1 = toStringStackHelper(L1,copy);
-        L2 = toStringStackHelper(L2,copy);
-        L3 = toStringStackHelper(L3,copy);
-        L4 = toStringStackHelper(L4,copy);
-        
-        stacks.add(L1);
-        stacks.add(L2);
-        stacks.add(L3);
-        stacks.add(L4);
-        
         return stacks;
     }
     
     /**
-     * Helper method for toStringStacks. Should not be called from anywhere else
-     * @param strStack The stack that is to be completed
-     * @param preds The list of predicates
-     * @return The complete string stack representation
+     * Returns the locations of this state's world, shorter names first and 
+     * then in order of their names, so L2 comes before L10
+     * @return the locations, in the order used by toStringStacks()
      */
-    private Stack<String> toStringStackHelper(Stack<String> strStack, ArrayList<Predicate> preds) {
-        String top = strStack.peek();
-        if(top.equals("")){
-            return strStack;
-        }
-        else {
-            for (Predicate p : preds) {
-                if(p.getArgument1().getName().equals(top) && p.getName().equals(Predicate.CLEAR)){  //Top is clear
-                    for(int i = strStack.size(); i<10; i++) {
-                        strStack.push("_");                                                  //Fill the rest of the way with emptry strings
-                    }
-                }
-                if(p.getArgument2() != null && p.getArgument2().getName().equals(top) && p.getName().equals(Predicate.ON)) {
-                    //Arg 1 is on top
-                    top = p.getArgument1().getName();
-                    strStack.push(top);
-                }
+    public ArrayList<Location> getLocations() {
+        ArrayList<Location> locations = new ArrayList<>();
+        for (Predicate p : getPredicate()) {
+            if (p.getLocation() != null && !locations.contains(p.getLocation())) {
+                locations.add(p.getLocation());
             }
         }
-        return strStack;
+        Collections.sort(locations, new Comparator<Location>() {
+            @Override
+            public int compare(Location a, Location b) {
+                int result = Integer.compare(a.getName().length(), b.getName().length());
+                return result != 0 ? result : a.getName().compareTo(b.getName());
+            }
+        });
+        return locations;
     }
     
     /**
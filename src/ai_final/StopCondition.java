@@ -0,0 +1,21 @@
+package ai_final;
+
+/**
+ * This interface decides when IDAStarSearch, ParallelSearch or
+ * BidirectionalSearch must stop before finding a path. ResolutionEngine
+ * gives them one that applies its time, expansion and memory limits, stops
+ * them when it is cancelled or its thread is interrupted, and passes their
+ * progress on to its SearchListener.
+ * @author Ryan Nichols
+ */
+public interface StopCondition {
+    /**
+     * Called by the search before it expands a state, or every few
+     * milliseconds by ParallelSearch, on the thread that called solve()
+     * @param statistics the counters of the search so far
+     * @param keptStates number of states the search keeps in memory
+     * @return SolveResult.Outcome.CANCELLED or BUDGET_EXCEEDED to stop the
+     * search, null to go on
+     */
+    SolveResult.Outcome check(SearchStatistics statistics, long keptStates);
+}
@@ -0,0 +1,84 @@
+package ai_final;
+
+/**
+ * This class describes a state that can be reached from a parent state by 
+ * applying one action, before that state is actually created. The fingerprint
+ * of the new world is known straight away, but the world itself is only built
+ * when it is asked for, so successors that turn out to be duplicates cost 
+ * almost nothing.
+ * @author Ryan Nichols
+ */
+public class Successor {
+    State parent;
+    Action action;
+    Changes changes;
+    long fingerprint;       //Zobrist fingerprint of the new world
+    PackedWorld world;      //The new world, null until it is asked for
+
+    /**
+     * @param parent the state the action is applied to
+     * @param action the action
+     * @param changes the changes of the action
+     * @param fingerprint fingerprint of the world after the action
+     */
+    public Successor(State parent, Action action, Changes changes, long fingerprint) {
+        this.parent = parent;
+        this.action = action;
+        this.changes = changes;
+        this.fingerprint = fingerprint;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Returns the packed world obtained by applying the action to the parent 
+     * state, building it the first time it is asked for.
+     * @return the new world
+     */
+    public PackedWorld getWorld() {
+        if (world == null) {
+            world = parent.getPacked().apply(action);
+        }
+        return world;
+    }
+
+    /**
+     * Creates the state described by this successor
+     * @param hn estimated distance from the new state to the goal state
+     * @return a new State holding only the packed form of its world
+     */
+    public State toState(int hn) {
+        State state = new State(getWorld(), action, parent, getGn(), hn);
+        state.setFingerprint(fingerprint);
+        return state;
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public State getParent() {
+        return parent;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Changes getChanges() {
+        return changes;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the number of actions from the initial state to the new state
+     */
+    public int getGn() {
+        return parent.getGn() + action.getCost();
+    }
+}
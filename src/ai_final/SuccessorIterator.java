@@ -0,0 +1,222 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class walks through the successors of a state one at a time. Actions
+ * are produced in the same order as State.getPossibleActions() (pickups, 
+ * putdowns, unstacks, stacks), but each one is only created when next() is 
+ * called, so a caller that stops early (e.g. because it found the goal) never
+ * pays for the rest.
+ * If a LocationSymmetry is given, a held block is only put down on the first
+ * clear location that is interchangeable with others, since putting it on the
+ * others leads to equivalent states.
+ * With macro moves, each successor moves a clear block straight to a clear 
+ * location or another clear block (see Move), so no successor holds a block.
+ * Only a state that already holds a block has single action successors, and
+ * the block moved last is not moved again, since a single move from the 
+ * parent state would do the same in fewer actions.
+ * The state must hold a packed world and have its fingerprint set. The 
+ * changes of each successor are made of the predicates of the world's Domain,
+ * looked up by the indices of the blocks and locations involved.
+ * @author Ryan Nichols
+ */
+public class SuccessorIterator implements Iterator<Successor> {
+    State state;
+    Zobrist zobrist;
+    WorldIndex worldIndex;
+    PackedWorld packed;     //The world of the state
+    Domain domain;          //The domain of that world
+    int pass;           //0: pickup/putdown, 1: unstack/stack, 2: finished
+    int position;       //Position in the clear block or clear location list
+    Action nextAction;  //The next action to return, null if not yet found
+    int block;          //Index of block1 of the next action
+    int from;           //Index of the block or location the next move lifts its block from
+    int other;          //Index of block2 or of the location of the next action
+    LocationSymmetry symmetry;  //Interchangeable locations, may be null
+    boolean representativeUsed; //True once a putdown on an interchangeable location was returned
+    boolean macroMoves;         //True to return Moves instead of single actions
+    int target;                 //Position in the clear locations, then in the clear blocks, for moves
+    Action lift;                //Lift of the block being moved, null until needed
+
+    /**
+     * @param state the state whose successors are wanted
+     * @param zobrist used to work out the fingerprints of the successors
+     */
+    public SuccessorIterator(State state, Zobrist zobrist) {
+        this(state, zobrist, null);
+    }
+
+    /**
+     * @param state the state whose successors are wanted
+     * @param zobrist used to work out the fingerprints of the successors
+     * @param symmetry interchangeable locations of the problem, or null to 
+     * try every clear location
+     */
+    public SuccessorIterator(State state, Zobrist zobrist, LocationSymmetry symmetry) {
+        this(state, zobrist, symmetry, false);
+    }
+
+    /**
+     * @param state the state whose successors are wanted
+     * @param zobrist used to work out the fingerprints of the successors
+     * @param symmetry interchangeable locations of the problem, or null to 
+     * try every clear location
+     * @param macroMoves true to return Moves instead of single actions
+     */
+    public SuccessorIterator(State state, Zobrist zobrist, LocationSymmetry symmetry, boolean macroMoves) {
+        this.macroMoves = macroMoves;
+        this.symmetry = symmetry;
+        this.state = state;
+        this.zobrist = zobrist;
+        this.worldIndex = state.getIndex();
+        this.packed = worldIndex.getPacked();
+        this.domain = packed.getDomain();
+        this.pass = 0;
+        this.position = 0;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    @Override
+    public boolean hasNext() {
+        if (nextAction == null) {
+            nextAction = findNextAction();
+        }
+        return nextAction != null;
+    }
+
+    @Override
+    public Successor next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Action action = nextAction;
+        nextAction = null;
+        Changes changes = action instanceof Move
+                ? ((Move) action).getChanges(domain, block, from, other)
+                : action.getChanges(domain, block, other);
+        return new Successor(state, action, changes, zobrist.update(state.getFingerprint(), changes));
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Moves through the clear blocks and locations until the next valid action
+     * is found
+     * @return the next action, or null if there are none left
+     */
+    private Action findNextAction() {
+        Block holding = worldIndex.getHeld();
+        ArrayList<Block> clearBlocks = worldIndex.getClearBlocks();
+        if (macroMoves && holding == null) {
+            return findNextMove();
+        }
+        
+        while (pass < 2) {
+            if (holding == null) {                                  //Pickup on the first pass, unstack on the second
+                while (position < clearBlocks.size()) {
+                    block = worldIndex.getClearBlockIndex(position);
+                    Block b = clearBlocks.get(position++);
+                    short support = packed.getSupport(block);
+                    if (pass == 0 && support < 0) {
+                        other = PackedWorld.locationOf(support);
+                        return new Action(Action.PICKUP, b, domain.getLocation(other));
+                    }
+                    if (pass == 1 && support >= 0) {
+                        other = support;
+                        return new Action(Action.UNSTACK, b, domain.getBlock(other));
+                    }
+                }
+            }
+            else if (pass == 0) {                                   //Putdown on the first pass
+                ArrayList<Location> clearLocations = worldIndex.getClearLocations();
+                while (position < clearLocations.size()) {
+                    other = worldIndex.getClearLocationIndex(position);
+                    Location l = clearLocations.get(position++);
+                    if (symmetry != null && symmetry.isInterchangeable(l)) {
+                        if (representativeUsed) {
+                            continue;                               //Equivalent to the putdown already returned
+                        }
+                        representativeUsed = true;
+                    }
+                    block = packed.getHeld();
+                    return new Action(Action.PUTDOWN, holding, l);
+                }
+            }
+            else {                                                  //Stack on the second pass
+                if (position < clearBlocks.size()) {
+                    block = packed.getHeld();
+                    other = worldIndex.getClearBlockIndex(position);
+                    return new Action(Action.STACK, holding, clearBlocks.get(position++));
+                }
+            }
+            pass++;                                                 //This pass is finished
+            position = 0;
+        }
+        return null;
+    }
+
+    /**
+     * Moves through the clear blocks, and for each one through the places it
+     * can be moved to, until the next move is found
+     * @return the next move, or null if there are none left
+     */
+    private Action findNextMove() {
+        ArrayList<Block> clearBlocks = worldIndex.getClearBlocks();
+        ArrayList<Location> clearLocations = worldIndex.getClearLocations();
+        Action last = state.getAction();
+        Block lastMoved = last instanceof Move ? last.getBlock1() : null;
+        
+        while (position < clearBlocks.size()) {
+            Block b = clearBlocks.get(position);
+            if (b.equals(lastMoved)) {                              //Moving it again is never shorter than moving it once from the parent
+                position++;
+                continue;
+            }
+            if (lift == null) {                                     //Shared by every move of this block
+                block = worldIndex.getClearBlockIndex(position);
+                short support = packed.getSupport(block);
+                if (support < 0) {
+                    from = PackedWorld.locationOf(support);
+                    lift = new Action(Action.PICKUP, b, domain.getLocation(from));
+                }
+                else {
+                    from = support;
+                    lift = new Action(Action.UNSTACK, b, domain.getBlock(from));
+                }
+            }
+            if (target < clearLocations.size()) {                  //Onto a clear location
+                other = worldIndex.getClearLocationIndex(target);
+                Location l = clearLocations.get(target++);
+                if (symmetry != null && symmetry.isInterchangeable(l)) {
+                    if (representativeUsed) {
+                        continue;                                   //Equivalent to the move already returned
+                    }
+                    representativeUsed = true;
+                }
+                return new Move(lift, new Action(Action.PUTDOWN, b, l));
+            }
+            int c = target++ - clearLocations.size();
+            if (c < clearBlocks.size()) {                           //Onto another clear block
+                if (c != position) {
+                    other = worldIndex.getClearBlockIndex(c);
+                    return new Move(lift, new Action(Action.STACK, b, clearBlocks.get(c)));
+                }
+                continue;
+            }
+            position++;                                             //No more places for this block
+            target = 0;
+            representativeUsed = false;
+            lift = null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,156 @@
+package ai_final;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class indexes a world (list of predicates) so that the questions asked
+ * when generating actions can be answered without scanning the whole world:
+ * which block is held, which blocks and locations are clear, and what each
+ * block sits on. The index is built with a single pass over the predicates,
+ * or straight from a PackedWorld, which avoids building the list of 
+ * predicates of the whole world for every state that is expanded.
+ * @author Ryan Nichols
+ */
+public class WorldIndex {
+    Block held;                             //The held block, null if the hand is empty
+    ArrayList<Block> clearBlocks;           //Blocks with nothing on them, in world order
+    ArrayList<Location> clearLocations;     //Locations with nothing on them, in world order
+    HashMap<Block, Predicate> support;      //The ON or ONTABLE predicate of each block that is not held, null if packed is used
+    PackedWorld packed;                     //The indexed world if it was packed, null otherwise
+    int[] clearBlockIndices;                //Domain index of each clear block, null unless packed is used
+    int[] clearLocationIndices;             //Domain index of each clear location, null unless packed is used
+
+    /**
+     * Builds the index of the given world
+     * @param world
+     */
+    public WorldIndex(ArrayList<Predicate> world) {
+        this.held = null;
+        this.clearBlocks = new ArrayList<>();
+        this.clearLocations = new ArrayList<>();
+        this.support = new HashMap<>(world.size() * 2);
+
+        for (Predicate p : world) {
+            switch (p.getName()) {
+                case Predicate.HOLDING:
+                    held = p.getArgument1();
+                    break;
+                case Predicate.CLEAR:
+                    if (p.getArgument1() != null) {
+                        clearBlocks.add(p.getArgument1());
+                    }
+                    break;
+                case Predicate.CLEARLOC:
+                    if (p.getLocation() != null) {
+                        clearLocations.add(p.getLocation());
+                    }
+                    break;
+                case Predicate.ON:
+                case Predicate.ONTABLE:
+                    support.put(p.getArgument1(), p);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Builds the index of a packed world. The clear blocks and locations are
+     * listed in the same order as for the unpacked world, so the successors 
+     * of a state do not depend on which form of its world was indexed.
+     * @param world
+     */
+    public WorldIndex(PackedWorld world) {
+        Domain domain = world.getDomain();
+        this.packed = world;
+        this.held = world.getHeld() == PackedWorld.EMPTY ? null : domain.getBlock(world.getHeld());
+        this.clearBlocks = new ArrayList<>();
+        this.clearLocations = new ArrayList<>();
+        this.clearBlockIndices = new int[domain.getLocationCount()];
+        this.clearLocationIndices = new int[domain.getLocationCount()];
+
+        int[] above = world.aboveBlocks();
+        int[] onLocation = new int[domain.getLocationCount()];     //Bottom block of each location, -1 if clear
+        Arrays.fill(onLocation, -1);
+        for (int b = 0; b < domain.getBlockCount(); b++) {
+            short s = world.getSupport(b);
+            if (s < 0 && s != PackedWorld.HELD) {
+                onLocation[PackedWorld.locationOf(s)] = b;
+            }
+        }
+        for (int l = 0; l < onLocation.length; l++) {
+            int b = onLocation[l];
+            if (b < 0) {
+                clearLocationIndices[clearLocations.size()] = l;
+                clearLocations.add(domain.getLocation(l));
+                continue;
+            }
+            while (above[b] >= 0) {                                 //Climb to the top of the stack
+                b = above[b];
+            }
+            clearBlockIndices[clearBlocks.size()] = b;
+            clearBlocks.add(domain.getBlock(b));
+        }
+    }
+
+
+    /*****************************************************
+     *              Getters and Setters                  *
+     *****************************************************/
+    public Block getHeld() {
+        return held;
+    }
+
+    public ArrayList<Block> getClearBlocks() {
+        return clearBlocks;
+    }
+
+    public ArrayList<Location> getClearLocations() {
+        return clearLocations;
+    }
+
+    /**
+     * @return the packed world this index was built from, null if it was 
+     * built from a list of predicates
+     */
+    public PackedWorld getPacked() {
+        return packed;
+    }
+
+    /**
+     * Only available for an index built from a packed world
+     * @param position position in getClearBlocks()
+     * @return the domain index of the clear block
+     */
+    public int getClearBlockIndex(int position) {
+        return clearBlockIndices[position];
+    }
+
+    /**
+     * Only available for an index built from a packed world
+     * @param position position in getClearLocations()
+     * @return the domain index of the clear location
+     */
+    public int getClearLocationIndex(int position) {
+        return clearLocationIndices[position];
+    }
+
+    /**
+     * @param block
+     * @return the ON or ONTABLE predicate describing what the block sits on,
+     * or null if the block is held
+     */
+    public Predicate getSupport(Block block) {
+        if (packed == null) {
+            return support.get(block);
+        }
+        Domain domain = packed.getDomain();
+        int b = domain.indexOf(block);
+        short s = packed.getSupport(b);
+        if (s == PackedWorld.HELD) {
+            return null;
+        }
+        return s >= 0 ? domain.on(b, s) : domain.onTable(b, PackedWorld.locationOf(s));
+    }
+}
@@ -0,0 +1,107 @@
+package ai_final;
+
+import java.util.ArrayList;
+
+/**
+ * This class computes Zobrist fingerprints of worlds (lists of predicates).
+ * Every distinct predicate of a domain is assigned a random 64 bit key, 
+ * derived from its id in the domain, and the fingerprint of a world is the XOR
+ * of the keys of all of its predicates. Because XOR is commutative, the 
+ * fingerprint does not depend on the order in which the predicates are listed,
+ * and because XOR is its own inverse, the fingerprint of a child world can be
+ * derived from that of its parent by XORing in only the predicates an action
+ * removes and adds.
+ *
+ * Keys are computed from the id instead of being stored, so a Zobrist object
+ * takes no more memory for a large domain than for a small one. Fingerprints
+ * from Zobrist objects of different domains cannot be compared.
+ *
+ * Two different worlds can in theory share a fingerprint, so callers that need
+ * an exact answer must still compare the worlds themselves on a match.
+ * @author Ryan Nichols
+ */
+public class Zobrist {
+    Domain domain;      //Domain giving the ids of the predicates
+    long seed;          //Seed mixed into every key
+
+    /**
+     * Creates the fingerprints of a domain. Uses a fixed seed so fingerprints
+     * are repeatable from run to run.
+     * @param domain
+     */
+    public Zobrist(Domain domain) {
+        this(domain, 0x5DEECE66DL);
+    }
+
+    /**
+     * Constructor with a specific seed for the keys
+     * @param domain
+     * @param seed
+     */
+    public Zobrist(Domain domain, long seed) {
+        this.domain = domain;
+        this.seed = seed;
+    }
+
+
+    /*****************************************************
+     *                   Core Methods                    *
+     *****************************************************/
+    /**
+     * Returns the random key assigned to the given predicate. Predicates that
+     * do not belong to the domain are looked up in it by name.
+     * @param p
+     * @return the 64 bit key of the predicate
+     * @throws IllegalArgumentException if the predicate mentions a block or 
+     * location that is not part of the domain
+     */
+    public long keyOf(Predicate p) {
+        int id = p.domain == domain ? p.id : domain.idOf(p);
+        if (id < 0) {
+            throw new IllegalArgumentException(p + " is not part of the domain");
+        }
+        return mix(seed + (id + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads the bits of consecutive inputs
+     * over the whole key
+     * @param z
+     * @return the mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Computes the fingerprint of a whole world
+     * @param world
+     * @return XOR of the keys of every predicate in the world
+     */
+    public long fingerprint(ArrayList<Predicate> world) {
+        long fingerprint = 0L;
+        for (Predicate p : world) {
+            fingerprint ^= keyOf(p);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Derives the fingerprint of the world obtained by applying the given
+     * changes to a world with the given fingerprint.
+     * @param fingerprint fingerprint of the world before the changes
+     * @param changes the predicates removed and added by an action
+     * @return fingerprint of the world after the changes
+     */
+    public long update(long fingerprint, Changes changes) {
+        for (Predicate p : changes.getRemoved()) {
+            fingerprint ^= keyOf(p);
+        }
+        for (Predicate p : changes.getAdded()) {
+            fingerprint ^= keyOf(p);
+        }
+        return fingerprint;
+    }
+}
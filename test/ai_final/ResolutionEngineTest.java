@@ -0,0 +1,83 @@
+package ai_final;
+
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of ResolutionEngine on problems whose initial and goal worlds do not
+ * have the same blocks. Blocks cannot appear or disappear, so every search
+ * must report that there is no path.
+ * @author Ryan Nichols
+ */
+public class ResolutionEngineTest {
+
+    /**
+     * @param initial stacks of the initial world, as read by ProblemReader
+     * @param goal stacks of the goal world
+     * @return a quiet engine for the problem
+     */
+    private static ResolutionEngine engine(String initial, String goal) {
+        ResolutionEngine engine = new ResolutionEngine(ProblemReader.parseWorld(initial), ProblemReader.parseWorld(goal));
+        engine.setVerbose(false);
+        return engine;
+    }
+
+    /**
+     * Solves a problem with every strategy and every search mode, and checks
+     * that none of them finds a path
+     * @param initial
+     * @param goal
+     */
+    private static void assertUnsolvable(String initial, String goal) {
+        for (SearchStrategy strategy : SearchStrategy.values()) {
+            ResolutionEngine engine = engine(initial, goal);
+            engine.setStrategy(strategy);
+            SolveResult result = engine.solveWithResult();
+            assertEquals(strategy.toString(), SolveResult.Outcome.UNSOLVABLE, result.getOutcome());
+            assertTrue(strategy.toString(), result.getStates().isEmpty());
+        }
+
+        ResolutionEngine engine = engine(initial, goal);
+        assertTrue(engine.solveIDAStar().isEmpty());
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, engine.getOutcome());
+
+        engine = engine(initial, goal);
+        assertTrue(engine.solveParallel(2).isEmpty());
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, engine.getOutcome());
+
+        engine = engine(initial, goal);
+        assertTrue(engine.solveBidirectional().isEmpty());
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, engine.getOutcome());
+    }
+
+    @Test
+    public void goalWithAnExtraBlock() {
+        //The goal only adds a block on top of the initial world
+        assertUnsolvable("A | |", "A B | |");
+    }
+
+    @Test
+    public void goalWithAMissingBlock() {
+        assertUnsolvable("A B | |", "A | |");
+    }
+
+    @Test
+    public void goalWithADifferentBlock() {
+        assertUnsolvable("A B | C |", "A B | D |");
+    }
+
+    @Test
+    public void sameWorldIsSolvedByTheEmptyPath() {
+        for (SearchStrategy strategy : SearchStrategy.values()) {
+            ResolutionEngine engine = engine("A B | C |", "A B | C |");
+            engine.setStrategy(strategy);
+            SolveResult result = engine.solveWithResult();
+            assertEquals(strategy.toString(), SolveResult.Outcome.SOLVED, result.getOutcome());
+            assertEquals(strategy.toString(), 1, result.getStates().size());
+        }
+        ArrayList<State> states = engine("A B | C |", "A B | C |").solveIDAStar();
+        assertEquals(1, states.size());
+    }
+}